@@ -0,0 +1,26 @@
+package com.williamsonoma.api.model.address;
+
+/**
+ * Packs a zip code or ZIP+4 range into one long, lower bound in the high 32 bits, so packed ranges sort as plain longs.
+ */
+public final class PackedZipCodeRange
+{
+    private PackedZipCodeRange()
+    {
+    }
+
+    public static long pack(int lower, int upper)
+    {
+        return (long) lower << 32 | (upper & 0xFFFFFFFFL);
+    }
+
+    public static int lower(long range)
+    {
+        return (int) (range >>> 32);
+    }
+
+    public static int upper(long range)
+    {
+        return (int) range;
+    }
+}
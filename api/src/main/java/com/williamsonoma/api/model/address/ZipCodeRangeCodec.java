@@ -0,0 +1,224 @@
+package com.williamsonoma.api.model.address;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+
+/**
+ * Varint wire format for sorted, compacted ranges: the gap since the previous range and the range length, ended by a zero.
+ */
+public final class ZipCodeRangeCodec
+{
+    public static final int MAGIC = 0x5A;
+    public static final int VERSION = 1;
+
+    private ZipCodeRangeCodec()
+    {
+    }
+
+    /**
+     * @param packedRanges Compacted ranges in ascending order, as returned by compactRanges.
+     */
+    public static byte[] encode(long[] packedRanges) throws IllegalArgumentException
+    {
+        var bytes = new ByteArrayOutputStream(2 + packedRanges.length * 4);
+        try
+        {
+            var encoder = new Encoder(bytes);
+            for (var range : packedRanges)
+            {
+                encoder.write(PackedZipCodeRange.lower(range), PackedZipCodeRange.upper(range));
+            }
+
+            encoder.finish();
+        }
+        catch (IOException e)
+        {
+            throw new UncheckedIOException(e);
+        }
+
+        return bytes.toByteArray();
+    }
+
+    public static long[] decode(byte[] encoded) throws IOException
+    {
+        var decoder = new Decoder(new ByteArrayInputStream(encoded));
+        var packedRanges = new long[16];
+        var size = 0;
+        while (decoder.next())
+        {
+            if (size == packedRanges.length)
+            {
+                packedRanges = Arrays.copyOf(packedRanges, size * 2);
+            }
+
+            packedRanges[size++] = PackedZipCodeRange.pack(decoder.lower(), decoder.upper());
+        }
+
+        return Arrays.copyOf(packedRanges, size);
+    }
+
+    /**
+     * Streams ranges to an output stream. Ranges must be written in ascending order without overlap.
+     * Wrap the stream in a BufferedOutputStream, each varint byte is a separate write.
+     */
+    public static final class Encoder
+    {
+        private final OutputStream out;
+        private long previousUpper = -1;
+        private boolean finished;
+
+        public Encoder(OutputStream out) throws IOException
+        {
+            this.out = out;
+            out.write(MAGIC);
+            out.write(VERSION);
+        }
+
+        public void write(int lower, int upper) throws IOException, IllegalArgumentException
+        {
+            if (finished)
+            {
+                throw new IllegalStateException("Zip code range encoder is already finished.");
+            }
+
+            if (lower < 0 || lower > upper)
+            {
+                throw new IllegalArgumentException("Zip code range lower bound cannot be greater than upper bound.");
+            }
+
+            if (lower <= previousUpper)
+            {
+                throw new IllegalArgumentException("Zip code ranges must be encoded in ascending order without overlap.");
+            }
+
+            writeVarint(lower - previousUpper);
+            writeVarint((long) upper - lower);
+            previousUpper = upper;
+        }
+
+        /**
+         * Write the end marker and flush. The stream is left open.
+         */
+        public void finish() throws IOException
+        {
+            if (!finished)
+            {
+                out.write(0);
+                out.flush();
+                finished = true;
+            }
+        }
+
+        private void writeVarint(long value) throws IOException
+        {
+            while (value >= 0x80)
+            {
+                out.write((int) (value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+
+            out.write((int) value);
+        }
+    }
+
+    /**
+     * Streams ranges from an input stream. The decoder holds only the current range, so reading a
+     * payload does not allocate anything per range.
+     */
+    public static final class Decoder
+    {
+        private final InputStream in;
+        private int lower;
+        private int upper = -1;
+        private boolean finished;
+
+        public Decoder(InputStream in) throws IOException
+        {
+            this.in = in;
+            if (readByte() != MAGIC)
+            {
+                throw new IOException("Not a zip code range encoding.");
+            }
+
+            var version = readByte();
+            if (version != VERSION)
+            {
+                throw new IOException("Unsupported zip code range encoding version " + version + ".");
+            }
+        }
+
+        /**
+         * Advance to the next range.
+         *
+         * @return False once the end marker has been read.
+         */
+        public boolean next() throws IOException
+        {
+            if (finished)
+            {
+                return false;
+            }
+
+            var gap = readVarint();
+            if (gap == 0)
+            {
+                finished = true;
+                return false;
+            }
+
+            var nextLower = upper + gap;
+            var nextUpper = nextLower + readVarint();
+            if (nextUpper > Integer.MAX_VALUE)
+            {
+                throw new IOException("Corrupt zip code range encoding, bound out of range.");
+            }
+
+            lower = (int) nextLower;
+            upper = (int) nextUpper;
+            return true;
+        }
+
+        public int lower()
+        {
+            return lower;
+        }
+
+        public int upper()
+        {
+            return upper;
+        }
+
+        private long readVarint() throws IOException
+        {
+            var value = 0L;
+            for (var shift = 0; shift < 35; shift += 7)
+            {
+                var b = readByte();
+                value |= (long) (b & 0x7F) << shift;
+                if (b < 0x80)
+                {
+                    return value;
+                }
+            }
+
+            throw new IOException("Corrupt zip code range encoding, varint too long.");
+        }
+
+        private int readByte() throws IOException
+        {
+            var b = in.read();
+            if (b < 0)
+            {
+                throw new EOFException("Truncated zip code range encoding.");
+            }
+
+            return b;
+        }
+    }
+}
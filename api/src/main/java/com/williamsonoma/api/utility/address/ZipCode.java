@@ -1,6 +1,9 @@
 package com.williamsonoma.api.utility.address;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import com.williamsonoma.api.model.address.PackedZipCodeRange;
 import com.williamsonoma.api.model.address.ZipCodeRange;
 
 /**
@@ -17,4 +20,143 @@ public interface ZipCode
      * @see Collection<ZipCodeRange>
      */
     Collection<ZipCodeRange> compactRanges(Collection<ZipCodeRange> ranges) throws IllegalArgumentException;
+
+    /**
+     * Compact zip code address ranges held as primitive values, without any ZipCodeRange or String conversion.
+     *
+     * @param lowers The lower bound of each range, 0 through 99999.
+     * @param uppers The upper bound of each range, parallel to lowers.
+     * @return The compacted ranges in ascending order, each packed into a long.
+     * @see com.williamsonoma.api.model.address.PackedZipCodeRange
+     */
+    default long[] compactRanges(int[] lowers, int[] uppers) throws IllegalArgumentException
+    {
+        // Implementations that only compact ZipCodeRange collections go through a conversion both ways
+        if (lowers.length != uppers.length)
+        {
+            throw new IllegalArgumentException("Zip code lower and upper bound arrays must be the same length.");
+        }
+
+        var ranges = new ArrayList<ZipCodeRange>(lowers.length);
+        for (var i = 0; i < lowers.length; i++)
+        {
+            if (lowers[i] < 0 || lowers[i] > 99999 || uppers[i] < 0 || uppers[i] > 99999)
+            {
+                throw new IllegalArgumentException("Zip code values must be between 00000 and 99999.");
+            }
+
+            ranges.add(new ZipCodeRange(String.format("%05d", lowers[i]), String.format("%05d", uppers[i])));
+        }
+
+        var compactedRanges = compactRanges(ranges);
+        var packedRanges = new long[compactedRanges.size()];
+        var size = 0;
+        for (var range : compactedRanges)
+        {
+            packedRanges[size++] = PackedZipCodeRange.pack(Integer.parseInt(range.getLower()), Integer.parseInt(range.getUpper()));
+        }
+
+        return packedRanges;
+    }
+
+    /**
+     * Compact ZIP+4 address ranges. Bounds are 9 digits, written as 123456789 or 12345-6789. A 5 digit
+     * bound covers its whole block, ie: a lower bound of 12345 starts at 12345-0000 and an upper bound of
+     * 12345 ends at 12345-9999.
+     *
+     * @param ranges The collection of ZIP+4 ranges to be compacted.
+     * @return A compacted collection of ZIP+4 ranges, formatted as 12345-6789.
+     */
+    default Collection<ZipCodeRange> compactZipPlusFourRanges(Collection<ZipCodeRange> ranges) throws IllegalArgumentException
+    {
+        var lowers = new int[ranges.size()];
+        var uppers = new int[ranges.size()];
+        var size = 0;
+        for (var range : ranges)
+        {
+            if (range.getLower() == null || range.getUpper() == null)
+            {
+                throw new IllegalArgumentException("Zip code range cannot have null as the upper or lower bound.");
+            }
+
+            lowers[size] = parseZipPlusFour(range.getLower(), 0);
+            uppers[size++] = parseZipPlusFour(range.getUpper(), 9999);
+        }
+
+        var packedRanges = compactZipPlusFourRanges(lowers, uppers);
+        var compactedRanges = new ArrayList<ZipCodeRange>(packedRanges.length);
+        for (var packedRange : packedRanges)
+        {
+            var lower = PackedZipCodeRange.lower(packedRange);
+            var upper = PackedZipCodeRange.upper(packedRange);
+            compactedRanges.add(new ZipCodeRange(String.format("%05d-%04d", lower / 10000, lower % 10000), String.format("%05d-%04d", upper / 10000, upper % 10000)));
+        }
+
+        return compactedRanges;
+    }
+
+    /**
+     * Compact ZIP+4 address ranges held as primitive values. The default sorts and merges the whole input in memory,
+     * implementations may compact it in bounded memory instead.
+     *
+     * @param lowers The lower bound of each range, 0 through 999999999.
+     * @param uppers The upper bound of each range, parallel to lowers.
+     * @return The compacted ranges in ascending order, each packed into a long.
+     * @see com.williamsonoma.api.model.address.PackedZipCodeRange
+     */
+    default long[] compactZipPlusFourRanges(int[] lowers, int[] uppers) throws IllegalArgumentException
+    {
+        if (lowers.length != uppers.length)
+        {
+            throw new IllegalArgumentException("Zip code lower and upper bound arrays must be the same length.");
+        }
+
+        var packedRanges = new long[lowers.length];
+        for (var i = 0; i < lowers.length; i++)
+        {
+            if (lowers[i] < 0 || lowers[i] > 999999999 || uppers[i] < 0 || uppers[i] > 999999999)
+            {
+                throw new IllegalArgumentException("ZIP+4 code values must be between 00000-0000 and 99999-9999.");
+            }
+
+            if (lowers[i] > uppers[i])
+            {
+                throw new IllegalArgumentException("Zip code range lower bound cannot be greater than upper bound.");
+            }
+
+            packedRanges[i] = PackedZipCodeRange.pack(lowers[i], uppers[i]);
+        }
+
+        Arrays.sort(packedRanges);
+
+        // Sorted by lower bound, so each range either extends the last compacted range or starts the next one
+        var size = 0;
+        for (var packedRange : packedRanges)
+        {
+            var lastUpper = size > 0 ? PackedZipCodeRange.upper(packedRanges[size - 1]) : -2;
+            if (PackedZipCodeRange.lower(packedRange) <= lastUpper + 1)
+            {
+                var upper = Math.max(lastUpper, PackedZipCodeRange.upper(packedRange));
+                packedRanges[size - 1] = PackedZipCodeRange.pack(PackedZipCodeRange.lower(packedRanges[size - 1]), upper);
+            }
+            else
+            {
+                packedRanges[size++] = packedRange;
+            }
+        }
+
+        return Arrays.copyOf(packedRanges, size);
+    }
+
+    // A 5 digit bound stands for the first or last ZIP+4 code of its block, depending on the plus four given.
+    private static int parseZipPlusFour(String zip, int plusFour) throws IllegalArgumentException
+    {
+        var digits = zip.length() == 10 && zip.charAt(5) == '-' ? zip.substring(0, 5) + zip.substring(6) : zip;
+        if ((digits.length() != 9 && digits.length() != 5) || !digits.chars().allMatch(c -> c >= '0' && c <= '9'))
+        {
+            throw new IllegalArgumentException("ZIP+4 code values must be 9 digits, optionally with a hyphen after the fifth.");
+        }
+
+        return digits.length() == 5 ? Integer.parseInt(digits) * 10000 + plusFour : Integer.parseInt(digits);
+    }
 }
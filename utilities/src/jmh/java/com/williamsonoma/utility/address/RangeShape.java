@@ -0,0 +1,100 @@
+package com.williamsonoma.utility.address;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import com.williamsonoma.api.model.address.ZipCodeRange;
+
+/**
+ * Input shapes for the compaction benchmarks, generated from fixed seeds.
+ */
+public enum RangeShape
+{
+    // Narrow ranges scattered over the universe, few of which touch until the universe fills up.
+    DISJOINT
+    {
+        int[] next(int i, Random random)
+        {
+            var lower = random.nextInt(ZipCodes.UNIVERSE - 3);
+            return new int[] { lower, lower + random.nextInt(3) };
+        }
+    },
+
+    // Wide ranges of up to a thousand zips, the same shape as the original performance tests.
+    OVERLAPPING
+    {
+        int[] next(int i, Random random)
+        {
+            var lower = random.nextInt(ZipCodes.UNIVERSE);
+            return new int[] { lower, lower + (ZipCodes.MAX_ZIP - lower) % 1000 };
+        }
+    },
+
+    // Chains of five zip ranges that only compact because they are adjacent, in random order.
+    ADJACENT
+    {
+        int[] next(int i, Random random)
+        {
+            var lower = (i * 5) % (ZipCodes.UNIVERSE - 5);
+            return new int[] { lower, lower + 4 };
+        }
+    },
+
+    // Ranges nested inside a handful of wide outer ranges.
+    NESTED
+    {
+        int[] next(int i, Random random)
+        {
+            var center = 5000 + 10000 * random.nextInt(10);
+            var halfWidth = random.nextInt(5000);
+            return new int[] { center - halfWidth, center + halfWidth };
+        }
+    },
+
+    // Overlapping ranges already sorted by lower bound, as they arrive from some upstream feeds.
+    PRESORTED
+    {
+        int[] next(int i, Random random)
+        {
+            return OVERLAPPING.next(i, random);
+        }
+
+        boolean sorted()
+        {
+            return true;
+        }
+    };
+
+    private static final long seed = 20180707L;
+
+    abstract int[] next(int i, Random random);
+
+    boolean sorted()
+    {
+        return false;
+    }
+
+    public List<ZipCodeRange> generate(int size)
+    {
+        var random = new Random(seed);
+        var ranges = new ArrayList<ZipCodeRange>(size);
+        for (var i = 0; i < size; i++)
+        {
+            var bounds = next(i, random);
+            ranges.add(new ZipCodeRange(String.format("%05d", bounds[0]), String.format("%05d", bounds[1])));
+        }
+
+        if (sorted())
+        {
+            ranges.sort(Comparator.comparing(ZipCodeRange::getLower));
+        }
+        else
+        {
+            Collections.shuffle(ranges, random);
+        }
+
+        return ranges;
+    }
+}
@@ -0,0 +1,141 @@
+package com.williamsonoma.utility.address;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import com.williamsonoma.api.model.address.PackedZipCodeRange;
+import com.williamsonoma.api.model.address.ZipCodeRange;
+import com.williamsonoma.api.utility.address.ZipCode;
+
+/**
+ * Compares the compaction engines across input sizes and shapes. Run with ./gradlew :utilities:jmh.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({ Mode.Throughput, Mode.AverageTime })
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = { "-Xms4g", "-Xmx4g" })
+public class ZipCodeCompactionBenchmark
+{
+    @Param({ "1000", "10000", "100000", "1000000", "5000000" })
+    private int size;
+
+    @Param({ "DISJOINT", "OVERLAPPING", "ADJACENT", "NESTED", "PRESORTED" })
+    private RangeShape shape;
+
+    private ZipCode treeSet;
+    private ZipCode serial;
+    private ZipCode parallel;
+    private ZipCode fixedUniverse;
+    private AlgorythmZipCode adaptive;
+
+    private List<ZipCodeRange> ranges;
+    private int[] lowers;
+    private int[] uppers;
+    private byte[] packed;
+
+    @Setup(Level.Trial)
+    public void setUp()
+    {
+        treeSet = new AlgorythmZipCode(CompactionStrategy.fixed(CompactionStrategy.Engine.TreeSet));
+        serial = new AlgorythmZipCode(false);
+        parallel = new AlgorythmZipCode(true);
+        fixedUniverse = new FixedUniverseZipCode();
+        adaptive = new AlgorythmZipCode();
+
+        ranges = shape.generate(size);
+        lowers = new int[size];
+        uppers = new int[size];
+        var text = new StringBuilder(size * PackedZipCodeParser.PAIR_LENGTH);
+        for (var i = 0; i < size; i++)
+        {
+            var range = ZipCodes.parseRange(ranges.get(i));
+            lowers[i] = PackedZipCodeRange.lower(range);
+            uppers[i] = PackedZipCodeRange.upper(range);
+            text.append(ranges.get(i).getLower()).append(ranges.get(i).getUpper());
+        }
+
+        packed = text.toString().getBytes(StandardCharsets.US_ASCII);
+    }
+
+    // The original TreeSet engine, as the baseline for the others
+    @Benchmark
+    public Collection<ZipCodeRange> treeSet()
+    {
+        return treeSet.compactRanges(ranges);
+    }
+
+    @Benchmark
+    public Collection<ZipCodeRange> serial()
+    {
+        return serial.compactRanges(ranges);
+    }
+
+    @Benchmark
+    public Collection<ZipCodeRange> parallel()
+    {
+        return parallel.compactRanges(ranges);
+    }
+
+    @Benchmark
+    public Collection<ZipCodeRange> fixedUniverse()
+    {
+        return fixedUniverse.compactRanges(ranges);
+    }
+
+    @Benchmark
+    public Collection<ZipCodeRange> adaptive()
+    {
+        return adaptive.compactRanges(ranges);
+    }
+
+    @Benchmark
+    public long[] treeSetPrimitive()
+    {
+        return treeSet.compactRanges(lowers, uppers);
+    }
+
+    @Benchmark
+    public long[] serialPrimitive()
+    {
+        return serial.compactRanges(lowers, uppers);
+    }
+
+    @Benchmark
+    public long[] parallelPrimitive()
+    {
+        return parallel.compactRanges(lowers, uppers);
+    }
+
+    @Benchmark
+    public long[] fixedUniversePrimitive()
+    {
+        return fixedUniverse.compactRanges(lowers, uppers);
+    }
+
+    @Benchmark
+    public long[] adaptivePrimitive()
+    {
+        return adaptive.compactRanges(lowers, uppers);
+    }
+
+    @Benchmark
+    public long[] adaptivePacked()
+    {
+        return adaptive.compactPackedRanges(packed);
+    }
+}
@@ -1,19 +1,21 @@
 package com.williamsonoma.utility.address;
 
+import java.nio.ByteBuffer;
+import java.util.Arrays;
 import java.util.Collection;
-import java.util.Collections;
 import java.util.Comparator;
 import java.util.Objects;
 import java.util.SortedSet;
 import java.util.TreeSet;
-import java.util.List;
 import java.util.ArrayList;
-import java.util.regex.Pattern;
-import org.apache.commons.lang3.math.NumberUtils;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.LongStream;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.apache.logging.log4j.Logger;
 import org.apache.logging.log4j.LogManager;
+import com.williamsonoma.api.model.address.PackedZipCodeRange;
 import com.williamsonoma.api.model.address.ZipCodeRange;
 import com.williamsonoma.api.utility.address.ZipCode;
 
@@ -26,14 +28,33 @@ public class AlgorythmZipCode implements ZipCode
 {
     private enum BoundType { Lower, Upper };
 
-    private Boolean processZipCodesInParallel;
+    private CompactionStrategy strategy;
+    private ParallelRangeCompactor parallelCompactor;
+    private volatile CompactionMetrics metrics = CompactionMetrics.DISABLED;
 
-    private static final String zipRx = "[0-9]{5}";
     private static final Logger logger = LogManager.getLogger(AlgorythmZipCode.class);
 
+    /**
+     * Choose the engine per call with the default adaptive thresholds.
+     */
+    public AlgorythmZipCode()
+    {
+        this(CompactionStrategy.adaptive());
+    }
+
+    /**
+     * Always radix sort the bounds on the calling thread or always fork across cores, whatever the size of the call.
+     * Prefer the adaptive constructors, which pick per call.
+     */
     public AlgorythmZipCode(Boolean processZipCodesInParallel)
     {
-        this.processZipCodesInParallel = processZipCodesInParallel;
+        this(CompactionStrategy.fixed(processZipCodesInParallel ? CompactionStrategy.Engine.ForkJoin : CompactionStrategy.Engine.RadixSort));
+    }
+
+    public AlgorythmZipCode(CompactionStrategy strategy)
+    {
+        this.strategy = strategy;
+        this.parallelCompactor = new ParallelRangeCompactor(ForkJoinPool.commonPool());
     }
 
     public Collection<ZipCodeRange> compactRanges(Collection<ZipCodeRange> ranges) throws IllegalArgumentException
@@ -46,39 +67,304 @@ public class AlgorythmZipCode implements ZipCode
 
         logRanges(ranges, "compactRanges called with ranges");
 
-        // Synchronize the TreeSet and use java 8 streams to add each lower and upper bound separately.
-        // At the end traverse the tree and return the new compacted ranges.
+        var timer = CompactionTimer.start(metrics);
+        var packedRanges = compactToPacked(ranges, timer);
+
+        var compactedRanges = new ArrayList<ZipCodeRange>(packedRanges.length);
+        for (var range : packedRanges)
+        {
+            compactedRanges.add(ZipCodes.toRange(range));
+        }
+
+        timer.phase(CompactionMetrics.Phase.Formatting);
+        timer.finish(ranges.size(), compactedRanges.size());
 
-        var rangeBounds = Collections.synchronizedSortedSet(new TreeSet<Bound>(new Comparator<Bound>()
+        return compactedRanges;
+    }
+
+    public long[] compactRanges(int[] lowers, int[] uppers) throws IllegalArgumentException
+    {
+        if (lowers == null || uppers == null)
+        {
+            logger.warn("compactRanges called with null zip code bounds, returning empty range array");
+            return new long[0];
+        }
+
+        ZipCodes.checkLengths(lowers, uppers);
+        logger.debug("compactRanges called with {} primitive ranges", lowers.length);
+
+        var timer = CompactionTimer.start(metrics);
+        long[] packedRanges;
+
+        if (strategy.isParallel(lowers.length))
+        {
+            packedRanges = parallelCompactor.compact(lowers.length, i -> ZipCodes.checkRange(lowers[i], uppers[i]));
+            timer.phase(CompactionMetrics.Phase.ParallelCompaction);
+        }
+        else
+        {
+            var inputRanges = new long[lowers.length];
+            var presorted = true;
+            for (var i = 0; i < lowers.length; i++)
             {
-                @Override
-                public int compare(Bound a, Bound b)
-                {
-                    if (a.value == b.value)
-                    {
-                        return a.type.compareTo(b.type);
-                    }
-    
-                    return a.value.compareTo(b.value);
-                };
-            }));
+                inputRanges[i] = ZipCodes.checkRange(lowers[i], uppers[i]);
+                presorted &= i == 0 || inputRanges[i - 1] <= inputRanges[i];
+            }
+
+            timer.phase(CompactionMetrics.Phase.Validation);
+            packedRanges = compactSerially(inputRanges, presorted, timer);
+        }
+
+        timer.finish(lowers.length, packedRanges.length);
+
+        return packedRanges;
+    }
+
+    /**
+     * Compact ranges packed as 10 ASCII digits each, the lower bound followed by the upper bound with no separators,
+     * ie: 0000500009 for 00005-00009. Ranges are validated and parsed eight bytes at a time, and an invalid range fails
+     * with its index.
+     */
+    public long[] compactPackedRanges(byte[] pairs) throws IllegalArgumentException
+    {
+        if (pairs == null)
+        {
+            logger.warn("compactPackedRanges called with null zip code bytes, returning empty range array");
+            return new long[0];
+        }
+
+        return compactPackedRanges(ByteBuffer.wrap(pairs));
+    }
+
+    /**
+     * Compact the packed ranges from the position to the limit of the buffer, which is left unchanged.
+     */
+    public long[] compactPackedRanges(ByteBuffer pairs) throws IllegalArgumentException
+    {
+        if (pairs == null)
+        {
+            logger.warn("compactPackedRanges called with null zip code buffer, returning empty range array");
+            return new long[0];
+        }
+
+        var view = PackedZipCodeParser.view(pairs);
+        var size = PackedZipCodeParser.size(view);
+        logger.debug("compactPackedRanges called with {} packed ranges", size);
+
+        var timer = CompactionTimer.start(metrics);
+        long[] packedRanges;
 
-        if (processZipCodesInParallel)
+        if (strategy.isParallel(size))
         {
-            ranges.parallelStream().forEach(x -> addBounds(x, rangeBounds));
+            try
+            {
+                packedRanges = parallelCompactor.compact(size, i -> PackedZipCodeParser.range(view, i));
+            }
+            catch (IllegalArgumentException e)
+            {
+                // The slices fail in no particular order, so find the first invalid range to report
+                for (var i = 0; i < size; i++)
+                {
+                    PackedZipCodeParser.range(view, i);
+                }
+
+                throw e;
+            }
+
+            timer.phase(CompactionMetrics.Phase.ParallelCompaction);
         }
         else
         {
-            ranges.forEach(x -> addBounds(x, rangeBounds));
+            var inputRanges = new long[size];
+            var presorted = true;
+            for (var i = 0; i < size; i++)
+            {
+                inputRanges[i] = PackedZipCodeParser.range(view, i);
+                presorted &= i == 0 || inputRanges[i - 1] <= inputRanges[i];
+            }
+
+            timer.phase(CompactionMetrics.Phase.Validation);
+            packedRanges = compactSerially(inputRanges, presorted, timer);
         }
 
-        return extractRanges(rangeBounds);
+        timer.finish(size, packedRanges.length);
+
+        return packedRanges;
     }
 
-    private Collection<ZipCodeRange> extractRanges(SortedSet<Bound> rangeBounds)
+    /**
+     * Compact any subset of a larger input, ie: one shard from ZipCodePartitioner, into a result that can be merged
+     * with the partial results of the other subsets, in this process or another.
+     */
+    public PartialCompaction compactPartial(Collection<ZipCodeRange> ranges) throws IllegalArgumentException
     {
-        var compactedRanges = new ArrayList<ZipCodeRange>();
+        if (ranges == null)
+        {
+            logger.warn("compactPartial called with null zip code range, returning empty partial result");
+            return PartialCompaction.EMPTY;
+        }
 
+        var timer = CompactionTimer.start(metrics);
+        var packedRanges = compactToPacked(ranges, timer);
+        timer.finish(ranges.size(), packedRanges.length);
+
+        return new PartialCompaction(packedRanges);
+    }
+
+    public PartialCompaction compactPartial(int[] lowers, int[] uppers) throws IllegalArgumentException
+    {
+        return new PartialCompaction(compactRanges(lowers, uppers));
+    }
+
+    /**
+     * Compact zip code ranges asynchronously on the common pool, publishing each compacted range as soon as it is closed.
+     * Nothing is compacted until a subscriber subscribes, and each subscriber gets its own run.
+     */
+    public Flow.Publisher<ZipCodeRange> compactRangesAsync(Collection<ZipCodeRange> ranges)
+    {
+        return new ZipCodeRangePublisher(ranges, ForkJoinPool.commonPool());
+    }
+
+    public Collection<ZipCodeRange> compactZipPlusFourRanges(Collection<ZipCodeRange> ranges) throws IllegalArgumentException
+    {
+        if (ranges == null)
+        {
+            logger.warn("compactZipPlusFourRanges called with null zip code range, returning empty range collection");
+            return new ArrayList<ZipCodeRange>();
+        }
+
+        return ZipPlusFourCompactor.compact(ranges);
+    }
+
+    public long[] compactZipPlusFourRanges(int[] lowers, int[] uppers) throws IllegalArgumentException
+    {
+        if (lowers == null || uppers == null)
+        {
+            logger.warn("compactZipPlusFourRanges called with null zip code bounds, returning empty range array");
+            return new long[0];
+        }
+
+        return ZipPlusFourCompactor.compact(lowers, uppers);
+    }
+
+    /**
+     * Record timings, sizes and allocation for every call. Pass CompactionMetrics.DISABLED to turn recording off.
+     */
+    public void setMetrics(CompactionMetrics metrics)
+    {
+        this.metrics = metrics;
+    }
+
+    private long[] compactToPacked(Collection<ZipCodeRange> ranges, CompactionTimer timer)
+    {
+        if (strategy.isParallel(ranges.size()))
+        {
+            // Each fork/join task parses, sorts and coalesces its own slice, then slices are merged pairwise.
+            var rangeArray = ranges.toArray(new ZipCodeRange[0]);
+            var packedRanges = parallelCompactor.compact(rangeArray.length, i -> ZipCodes.parseRange(rangeArray[i]));
+            timer.phase(CompactionMetrics.Phase.ParallelCompaction);
+            return packedRanges;
+        }
+
+        var inputRanges = new long[ranges.size()];
+        var size = 0;
+        var presorted = true;
+        for (var range : ranges)
+        {
+            inputRanges[size] = ZipCodes.parseRange(range);
+            presorted &= size == 0 || inputRanges[size - 1] <= inputRanges[size];
+            size++;
+        }
+
+        timer.phase(CompactionMetrics.Phase.Validation);
+        return compactSerially(inputRanges, presorted, timer);
+    }
+
+    private long[] compactSerially(long[] inputRanges, boolean presorted, CompactionTimer timer)
+    {
+        var engine = strategy.select(inputRanges.length, presorted);
+        logger.debug("compacting {} ranges with the {} engine", inputRanges.length, engine);
+
+        switch (engine)
+        {
+            case SortMerge:
+                Arrays.sort(inputRanges);
+                timer.phase(CompactionMetrics.Phase.Sorting);
+                return coalesceSorted(inputRanges, timer);
+
+            case Presorted:
+                return coalesceSorted(inputRanges, timer);
+
+            case RadixSort:
+                var compacted = RadixBoundCompactor.compact(inputRanges, inputRanges.length, timer);
+                return Arrays.copyOf(inputRanges, compacted);
+
+            case FixedUniverse:
+                var coverage = new ZipCodeCoverage();
+                for (var range : inputRanges)
+                {
+                    coverage.add(PackedZipCodeRange.lower(range), PackedZipCodeRange.upper(range));
+                }
+
+                timer.phase(CompactionMetrics.Phase.BoundInsertion);
+                var compactedRanges = coverage.toPacked();
+                timer.phase(CompactionMetrics.Phase.Extraction);
+                return compactedRanges;
+
+            default:
+                return compactWithBoundTree(inputRanges, timer);
+        }
+    }
+
+    private long[] coalesceSorted(long[] inputRanges, CompactionTimer timer)
+    {
+        var size = PackedRanges.coalesce(inputRanges, inputRanges.length);
+        timer.phase(CompactionMetrics.Phase.Extraction);
+        return Arrays.copyOf(inputRanges, size);
+    }
+
+    private long[] compactWithBoundTree(long[] inputRanges, CompactionTimer timer)
+    {
+        // Add each lower and upper bound separately, then traverse the tree to build the compacted ranges.
+
+        var rangeBounds = newRangeBounds();
+        for (var i = 0; i < inputRanges.length; i++)
+        {
+            addBounds(inputRanges[i], i, rangeBounds);
+        }
+
+        timer.phase(CompactionMetrics.Phase.BoundInsertion);
+
+        var compactedRanges = LongStream.builder();
+        extractRanges(rangeBounds, (lower, upper) -> compactedRanges.add(PackedZipCodeRange.pack(lower, upper)));
+
+        timer.phase(CompactionMetrics.Phase.Extraction);
+
+        return compactedRanges.build().toArray();
+    }
+
+    private SortedSet<Bound> newRangeBounds()
+    {
+        return new TreeSet<Bound>(new Comparator<Bound>()
+            {
+                @Override
+                public int compare(Bound a, Bound b)
+                {
+                    // Duplicate bounds are kept apart by input position so every range is counted
+                    if (a.value.equals(b.value))
+                    {
+                        return a.type == b.type ? Integer.compare(a.position, b.position) : a.type.compareTo(b.type);
+                    }
+    
+                    return a.value.compareTo(b.value);
+                };
+            });
+    }
+
+    private void extractRanges(SortedSet<Bound> rangeBounds, IntRangeConsumer compactedRanges)
+    {
+        // A range is only closed once every range opened before its upper bound has been closed as well
+        var openRanges = 0;
         var lower = -1;
         var upper = -1;
         for (var bound : rangeBounds)
@@ -86,15 +372,13 @@ public class AlgorythmZipCode implements ZipCode
             if (bound.isLower())
             {
                 logger.debug("lower bound {} upper {}", bound.getValue(), upper);
-                if (checkAndAddNewRange(lower, upper, bound.getValue(), compactedRanges) || lower < 0)
+                if (openRanges++ == 0 && (checkAndAddNewRange(lower, upper, bound.getValue(), compactedRanges) || lower < 0))
                 {
                     lower = bound.getValue();
                 }
-
-                upper = -1;
             }
 
-            if (bound.isUpper())
+            if (bound.isUpper() && --openRanges == 0)
             {
                 logger.debug("upper bound {}", bound.getValue());
                 upper = bound.getValue();
@@ -102,11 +386,9 @@ public class AlgorythmZipCode implements ZipCode
         }
 
         checkAndAddNewRange(lower, upper, -1, compactedRanges);
-
-        return compactedRanges;
     }
 
-    private boolean checkAndAddNewRange(int lower, int upper, int nextLower, List<ZipCodeRange> newRanges)
+    private boolean checkAndAddNewRange(int lower, int upper, int nextLower, IntRangeConsumer newRanges)
     {
         var rangeAdded = false;
         if (lower > -1 && upper > -1)
@@ -117,43 +399,27 @@ public class AlgorythmZipCode implements ZipCode
             {
                 rangeAdded = true;
 
-                var lowerZip = String.format("%05d", lower);
-                var upperZip = String.format("%05d", upper);
-
-                logger.debug("adding new range {} {}", lowerZip, upperZip);
-                newRanges.add(new ZipCodeRange(lowerZip, upperZip));
+                logger.debug("adding new range {} {}", lower, upper);
+                newRanges.accept(lower, upper);
             }
         }
 
         return rangeAdded;
     }
 
-    private void addBounds(ZipCodeRange range, SortedSet<Bound> rangeBounds) throws IllegalArgumentException
+    private void addBounds(long range, int position, SortedSet<Bound> rangeBounds)
     {
-        if (range.getLower() == null || range.getUpper() == null)
-        {
-            throw new IllegalArgumentException("Zip code range cannot have null as the upper or lower bound.");
-        }
-
-        if (!Pattern.matches(zipRx, range.getLower()) || !Pattern.matches(zipRx, range.getUpper()))
-        {
-            throw new IllegalArgumentException("Zip code values must be 5 digits.");
-        }
-
-        var lower = NumberUtils.toInt(range.getLower(), -1);
-        var upper = NumberUtils.toInt(range.getUpper(), -1);
-
-        if (lower > upper)
-        {
-            throw new IllegalArgumentException("Zip code range lower bound cannot be greater than upper bound.");
-        }
-
-        rangeBounds.add(new Bound(lower, BoundType.Lower));
-        rangeBounds.add(new Bound(upper, BoundType.Upper));
+        rangeBounds.add(new Bound(PackedZipCodeRange.lower(range), BoundType.Lower, position));
+        rangeBounds.add(new Bound(PackedZipCodeRange.upper(range), BoundType.Upper, position));
     }
 
     private void logRanges(Collection<ZipCodeRange> ranges, String logMsg)
     {
+        if (!logger.isDebugEnabled())
+        {
+            return;
+        }
+
         logger.debug(logMsg);
         if (ranges != null)
         {
@@ -172,11 +438,13 @@ public class AlgorythmZipCode implements ZipCode
     {
         private Integer value;
         private BoundType type;
+        private int position;
 
-        public Bound(Integer x, BoundType y)
+        public Bound(Integer x, BoundType y, int z)
         {
             value = x;
             type = y;
+            position = z;
         }
 
         public boolean isLower()
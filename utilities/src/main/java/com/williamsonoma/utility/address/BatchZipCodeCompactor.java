@@ -0,0 +1,163 @@
+package com.williamsonoma.utility.address;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import org.apache.logging.log4j.Logger;
+import org.apache.logging.log4j.LogManager;
+import com.williamsonoma.api.model.address.ZipCodeRange;
+
+/**
+ * Compacts many independent range lists in one call on a fork/join pool.
+ */
+public class BatchZipCodeCompactor
+{
+    private static final Logger logger = LogManager.getLogger(BatchZipCodeCompactor.class);
+
+    private static final ThreadLocal<long[]> scratch = ThreadLocal.withInitial(() -> new long[1024]);
+
+    private final ForkJoinPool pool;
+
+    public BatchZipCodeCompactor()
+    {
+        this(ForkJoinPool.commonPool());
+    }
+
+    public BatchZipCodeCompactor(ForkJoinPool pool)
+    {
+        this.pool = pool;
+    }
+
+    /**
+     * Compact every range list in the map.
+     *
+     * @param rangeLists The range lists to compact, by key. A null list compacts to an empty one.
+     * @return The compacted range lists, by key, in the iteration order of the map passed in.
+     */
+    public <K> Map<K, Collection<ZipCodeRange>> compactAll(Map<K, ? extends Collection<ZipCodeRange>> rangeLists) throws IllegalArgumentException
+    {
+        var compactedLists = new LinkedHashMap<K, Collection<ZipCodeRange>>();
+        if (rangeLists == null)
+        {
+            logger.warn("compactAll called with null range lists, returning empty map");
+            return compactedLists;
+        }
+
+        var tasks = new ArrayList<ListTask<K>>(rangeLists.size());
+        for (var rangeList : rangeLists.entrySet())
+        {
+            tasks.add(new ListTask<K>(rangeList.getKey(), rangeList.getValue()));
+        }
+
+        // invokeAll forks from the end of the list and idle workers steal the oldest fork, so the largest go last
+        var schedule = new ArrayList<ListTask<K>>(tasks);
+        schedule.sort(Comparator.comparingInt((ListTask<K> task) -> task.size()));
+
+        pool.invoke(new RecursiveAction()
+            {
+                @Override
+                protected void compute()
+                {
+                    ForkJoinTask.invokeAll(schedule);
+                }
+            });
+
+        for (var task : tasks)
+        {
+            if (task.failure != null)
+            {
+                throw task.failure;
+            }
+
+            compactedLists.put(task.key, task.compactedRanges);
+        }
+
+        logger.debug("compacted {} range lists", tasks.size());
+        return compactedLists;
+    }
+
+    private static class ListTask<K> extends RecursiveAction
+    {
+        private final K key;
+        private final Collection<ZipCodeRange> ranges;
+        private List<ZipCodeRange> compactedRanges;
+        private IllegalArgumentException failure;
+
+        ListTask(K key, Collection<ZipCodeRange> ranges)
+        {
+            this.key = key;
+            this.ranges = ranges;
+        }
+
+        int size()
+        {
+            return ranges == null ? 0 : ranges.size();
+        }
+
+        @Override
+        protected void compute()
+        {
+            try
+            {
+                compactedRanges = toZipCodeRanges(size() > ParallelRangeCompactor.SLICE_SIZE ? compactLarge() : compactSmall());
+            }
+            catch (IllegalArgumentException e)
+            {
+                // Kept for the caller's thread to throw, since join() rebuilds exceptions thrown by other workers
+                var cause = e;
+                while (cause.getCause() instanceof IllegalArgumentException)
+                {
+                    cause = (IllegalArgumentException) cause.getCause();
+                }
+
+                failure = new IllegalArgumentException("Range list " + key + ": " + cause.getMessage(), cause);
+            }
+        }
+
+        private long[] compactSmall()
+        {
+            var buffer = scratch.get();
+            if (buffer.length < size())
+            {
+                buffer = new long[Math.max(size(), buffer.length * 2)];
+                scratch.set(buffer);
+            }
+
+            var size = 0;
+            if (ranges != null)
+            {
+                for (var range : ranges)
+                {
+                    buffer[size++] = ZipCodes.parseRange(range);
+                }
+            }
+
+            Arrays.sort(buffer, 0, size);
+            return Arrays.copyOf(buffer, PackedRanges.coalesce(buffer, size));
+        }
+
+        private long[] compactLarge()
+        {
+            var rangeArray = ranges.toArray(new ZipCodeRange[0]);
+            return new ParallelRangeCompactor.CompactTask(i -> ZipCodes.parseRange(rangeArray[i]), 0, rangeArray.length).invoke();
+        }
+
+        private static List<ZipCodeRange> toZipCodeRanges(long[] packedRanges)
+        {
+            var compactedRanges = new ArrayList<ZipCodeRange>(packedRanges.length);
+            for (var range : packedRanges)
+            {
+                compactedRanges.add(ZipCodes.toRange(range));
+            }
+
+            return compactedRanges;
+        }
+    }
+}
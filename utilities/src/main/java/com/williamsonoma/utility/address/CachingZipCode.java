@@ -0,0 +1,281 @@
+package com.williamsonoma.utility.address;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import org.apache.logging.log4j.Logger;
+import org.apache.logging.log4j.LogManager;
+import com.williamsonoma.api.model.address.PackedZipCodeRange;
+import com.williamsonoma.api.model.address.ZipCodeRange;
+import com.williamsonoma.api.utility.address.ZipCode;
+
+/**
+ * Bounded LRU cache of compacted results in front of another ZipCode, keyed by input content.
+ */
+public class CachingZipCode implements ZipCode
+{
+    private static final Logger logger = LogManager.getLogger(CachingZipCode.class);
+
+    private final ZipCode delegate;
+    private final long maxCachedRanges;
+    private final LinkedHashMap<RangeKey, CachedResult> cache = new LinkedHashMap<RangeKey, CachedResult>(16, 0.75f, true);
+    private long cachedRanges;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    /**
+     * @param delegate The ZipCode that compacts ranges on a cache miss.
+     * @param maxCachedRanges The most ranges to hold across all cached inputs and their compacted results.
+     */
+    public CachingZipCode(ZipCode delegate, long maxCachedRanges)
+    {
+        this.delegate = delegate;
+        this.maxCachedRanges = maxCachedRanges;
+    }
+
+    public Collection<ZipCodeRange> compactRanges(Collection<ZipCodeRange> ranges) throws IllegalArgumentException
+    {
+        if (ranges == null)
+        {
+            return delegate.compactRanges(ranges);
+        }
+
+        var key = RangeKey.of(ranges);
+        var result = lookup(key);
+        if (result == null)
+        {
+            result = CachedResult.of(delegate.compactRanges(ranges));
+            store(key, result);
+        }
+
+        return result.ranges;
+    }
+
+    public long[] compactRanges(int[] lowers, int[] uppers) throws IllegalArgumentException
+    {
+        if (lowers == null || uppers == null)
+        {
+            return delegate.compactRanges(lowers, uppers);
+        }
+
+        var key = RangeKey.of(lowers, uppers);
+        var result = lookup(key);
+        if (result == null)
+        {
+            result = CachedResult.of(delegate.compactRanges(lowers, uppers));
+            store(key, result);
+        }
+
+        return result.packedRanges.clone();
+    }
+
+    /**
+     * ZIP+4 results can run to millions of ranges, so they pass straight through to the delegate rather than crowd out the cache.
+     */
+    public Collection<ZipCodeRange> compactZipPlusFourRanges(Collection<ZipCodeRange> ranges) throws IllegalArgumentException
+    {
+        return delegate.compactZipPlusFourRanges(ranges);
+    }
+
+    public long[] compactZipPlusFourRanges(int[] lowers, int[] uppers) throws IllegalArgumentException
+    {
+        return delegate.compactZipPlusFourRanges(lowers, uppers);
+    }
+
+    public long getHitCount()
+    {
+        return hits.get();
+    }
+
+    public long getMissCount()
+    {
+        return misses.get();
+    }
+
+    public long getEvictionCount()
+    {
+        return evictions.get();
+    }
+
+    public double getHitRate()
+    {
+        var requests = hits.get() + misses.get();
+        return requests == 0 ? 0.0 : (double) hits.get() / requests;
+    }
+
+    public synchronized int getCachedResultCount()
+    {
+        return cache.size();
+    }
+
+    public synchronized long getCachedRangeCount()
+    {
+        return cachedRanges;
+    }
+
+    public synchronized void clear()
+    {
+        cache.clear();
+        cachedRanges = 0;
+    }
+
+    private synchronized CachedResult lookup(RangeKey key)
+    {
+        var result = cache.get(key);
+        if (result == null)
+        {
+            misses.incrementAndGet();
+        }
+        else
+        {
+            hits.incrementAndGet();
+        }
+
+        return result;
+    }
+
+    private synchronized void store(RangeKey key, CachedResult result)
+    {
+        var weight = key.weight() + result.weight();
+        if (weight > maxCachedRanges)
+        {
+            logger.debug("input and compacted result of {} ranges are larger than the cache, not caching", weight);
+            return;
+        }
+
+        var previous = cache.put(key, result);
+        cachedRanges += weight - (previous == null ? 0 : key.weight() + previous.weight());
+
+        var eldest = cache.entrySet().iterator();
+        while (cachedRanges > maxCachedRanges && eldest.hasNext())
+        {
+            var entry = eldest.next();
+            cachedRanges -= entry.getKey().weight() + entry.getValue().weight();
+            eldest.remove();
+            evictions.incrementAndGet();
+        }
+    }
+
+    /**
+     * A compacted result shared between callers, as packed ranges and as unmodifiable ranges.
+     */
+    static final class CachedResult
+    {
+        final long[] packedRanges;
+        final List<ZipCodeRange> ranges;
+
+        CachedResult(long[] packedRanges)
+        {
+            var ranges = new ArrayList<ZipCodeRange>(packedRanges.length);
+            for (var range : packedRanges)
+            {
+                ranges.add(new ImmutableZipCodeRange(ZipCodes.format(PackedZipCodeRange.lower(range)), ZipCodes.format(PackedZipCodeRange.upper(range))));
+            }
+
+            this.packedRanges = packedRanges;
+            this.ranges = Collections.unmodifiableList(ranges);
+        }
+
+        static CachedResult of(Collection<ZipCodeRange> compactedRanges)
+        {
+            var packedRanges = new long[compactedRanges.size()];
+            var size = 0;
+            for (var range : compactedRanges)
+            {
+                packedRanges[size++] = ZipCodes.parseRange(range);
+            }
+
+            return new CachedResult(packedRanges);
+        }
+
+        static CachedResult of(long[] compactedRanges)
+        {
+            return new CachedResult(compactedRanges.clone());
+        }
+
+        // Every entry counts for at least one so empty results are still bounded.
+        long weight()
+        {
+            return packedRanges.length + 1;
+        }
+    }
+
+    /**
+     * Order-insensitive content key, the distinct input ranges packed and sorted.
+     */
+    static final class RangeKey
+    {
+        private final long[] packedRanges;
+        private final int hash;
+
+        private RangeKey(long[] packedRanges, int size)
+        {
+            Arrays.sort(packedRanges, 0, size);
+            var distinct = 0;
+            for (var i = 0; i < size; i++)
+            {
+                if (distinct == 0 || packedRanges[i] != packedRanges[distinct - 1])
+                {
+                    packedRanges[distinct++] = packedRanges[i];
+                }
+            }
+
+            this.packedRanges = Arrays.copyOf(packedRanges, distinct);
+            this.hash = Arrays.hashCode(this.packedRanges);
+        }
+
+        static RangeKey of(Collection<ZipCodeRange> ranges) throws IllegalArgumentException
+        {
+            var packedRanges = new long[ranges.size()];
+            var size = 0;
+            for (var range : ranges)
+            {
+                packedRanges[size++] = ZipCodes.parseRange(range);
+            }
+
+            return new RangeKey(packedRanges, size);
+        }
+
+        static RangeKey of(int[] lowers, int[] uppers) throws IllegalArgumentException
+        {
+            ZipCodes.checkLengths(lowers, uppers);
+
+            var packedRanges = new long[lowers.length];
+            for (var i = 0; i < lowers.length; i++)
+            {
+                packedRanges[i] = ZipCodes.checkRange(lowers[i], uppers[i]);
+            }
+
+            return new RangeKey(packedRanges, packedRanges.length);
+        }
+
+        long weight()
+        {
+            return packedRanges.length;
+        }
+
+        @Override
+        public boolean equals(Object obj)
+        {
+            if (obj instanceof RangeKey)
+            {
+                var key = (RangeKey) obj;
+                return hash == key.hash && Arrays.equals(packedRanges, key.packedRanges);
+            }
+
+            return false;
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return hash;
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.williamsonoma.utility.address;
+
+/**
+ * Receives per-phase timings and per-call sizes from the compaction engines.
+ */
+public interface CompactionMetrics
+{
+    enum Phase { Validation, Sorting, BoundInsertion, Extraction, ParallelCompaction, Formatting };
+
+    CompactionMetrics DISABLED = new CompactionMetrics()
+        {
+            @Override
+            public boolean isEnabled()
+            {
+                return false;
+            }
+
+            @Override
+            public void recordPhase(Phase phase, long elapsedNanos)
+            {
+            }
+
+            @Override
+            public void recordCall(int inputRanges, int outputRanges, long elapsedNanos, long allocatedBytes)
+            {
+            }
+        };
+
+    boolean isEnabled();
+
+    /**
+     * @param phase The phase of compactRanges that just finished.
+     * @param elapsedNanos Wall clock time spent in the phase.
+     */
+    void recordPhase(Phase phase, long elapsedNanos);
+
+    /**
+     * @param inputRanges The number of ranges passed in.
+     * @param outputRanges The number of compacted ranges returned.
+     * @param elapsedNanos Wall clock time for the whole call.
+     * @param allocatedBytes Bytes allocated by the calling thread during the call, or -1 when the JVM cannot measure it.
+     */
+    void recordCall(int inputRanges, int outputRanges, long elapsedNanos, long allocatedBytes);
+}
@@ -0,0 +1,189 @@
+package com.williamsonoma.utility.address;
+
+import java.util.Random;
+import org.apache.logging.log4j.Logger;
+import org.apache.logging.log4j.LogManager;
+
+/**
+ * Chooses a compaction engine per call from the input size, the cores available and whether the input is sorted.
+ */
+public final class CompactionStrategy
+{
+    public enum Engine { TreeSet, SortMerge, RadixSort, Presorted, FixedUniverse, ForkJoin };
+
+    public static final int DEFAULT_RADIX_THRESHOLD = 1 << 11;
+    public static final int DEFAULT_UNIVERSE_THRESHOLD = 1 << 14;
+    public static final int DEFAULT_PARALLEL_THRESHOLD = 1 << 17;
+
+    private static final int[] calibrationSizes = { 1 << 8, 1 << 10, 1 << 12, 1 << 14, 1 << 16, 1 << 18 };
+    private static final int calibrationRuns = 5;
+
+    private static final Logger logger = LogManager.getLogger(CompactionStrategy.class);
+
+    private final Engine fixedEngine;
+    private final int radixThreshold;
+    private final int universeThreshold;
+    private final int parallelThreshold;
+
+    private CompactionStrategy(Engine fixedEngine, int radixThreshold, int universeThreshold, int parallelThreshold)
+    {
+        this.fixedEngine = fixedEngine;
+        this.radixThreshold = radixThreshold;
+        this.universeThreshold = universeThreshold;
+        this.parallelThreshold = parallelThreshold;
+    }
+
+    /**
+     * Adaptive selection with the default thresholds.
+     */
+    public static CompactionStrategy adaptive()
+    {
+        return adaptive(DEFAULT_RADIX_THRESHOLD, DEFAULT_UNIVERSE_THRESHOLD, DEFAULT_PARALLEL_THRESHOLD);
+    }
+
+    /**
+     * Adaptive selection with thresholds measured offline, ie: from the JMH benchmarks on the target hardware.
+     *
+     * @param radixThreshold The input size at which radix sorting bounds beats a comparison sort.
+     * @param universeThreshold The input size at which the fixed universe sweep beats sorting.
+     * @param parallelThreshold The input size at which forking across cores beats the best serial engine.
+     */
+    public static CompactionStrategy adaptive(int radixThreshold, int universeThreshold, int parallelThreshold)
+    {
+        if (Runtime.getRuntime().availableProcessors() < 2)
+        {
+            parallelThreshold = Integer.MAX_VALUE;
+        }
+
+        return new CompactionStrategy(null, radixThreshold, universeThreshold, parallelThreshold);
+    }
+
+    /**
+     * Always use one engine, whatever the input.
+     */
+    public static CompactionStrategy fixed(Engine engine)
+    {
+        return new CompactionStrategy(engine, 0, 0, 0);
+    }
+
+    /**
+     * Measure the engines on this machine and derive the thresholds from where they cross over.
+     * Each engine runs five times at every size up to 2^18 ranges, about 2.5 seconds on a cold single core JVM, so run it
+     * once at startup rather than per request.
+     */
+    public static CompactionStrategy calibrate()
+    {
+        var random = new Random(20180707L);
+        var sortMerge = new AlgorythmZipCode(fixed(Engine.SortMerge));
+        var radixSort = new AlgorythmZipCode(fixed(Engine.RadixSort));
+        var fixedUniverse = new AlgorythmZipCode(fixed(Engine.FixedUniverse));
+        var forkJoin = new AlgorythmZipCode(fixed(Engine.ForkJoin));
+
+        var radixThreshold = Integer.MAX_VALUE;
+        var universeThreshold = Integer.MAX_VALUE;
+        var parallelThreshold = Integer.MAX_VALUE;
+        for (var size : calibrationSizes)
+        {
+            var lowers = new int[size];
+            var uppers = new int[size];
+            for (var i = 0; i < size; i++)
+            {
+                lowers[i] = random.nextInt(ZipCodes.UNIVERSE);
+                uppers[i] = lowers[i] + (ZipCodes.MAX_ZIP - lowers[i]) % 1000;
+            }
+
+            var sortMergeNanos = time(sortMerge, lowers, uppers);
+            var radixSortNanos = time(radixSort, lowers, uppers);
+            var fixedUniverseNanos = time(fixedUniverse, lowers, uppers);
+            var forkJoinNanos = time(forkJoin, lowers, uppers);
+            logger.debug("calibration size {} sort merge {} ns, radix sort {} ns, fixed universe {} ns, fork join {} ns",
+                    size, sortMergeNanos, radixSortNanos, fixedUniverseNanos, forkJoinNanos);
+
+            var sortingNanos = Math.min(sortMergeNanos, radixSortNanos);
+            if (radixThreshold == Integer.MAX_VALUE && radixSortNanos < sortMergeNanos)
+            {
+                radixThreshold = size;
+            }
+
+            if (universeThreshold == Integer.MAX_VALUE && fixedUniverseNanos < sortingNanos)
+            {
+                universeThreshold = size;
+            }
+
+            if (parallelThreshold == Integer.MAX_VALUE && forkJoinNanos < Math.min(sortingNanos, fixedUniverseNanos))
+            {
+                parallelThreshold = size;
+            }
+        }
+
+        logger.info("calibrated compaction thresholds, radix sort from {} ranges, fixed universe from {} ranges, fork join from {} ranges",
+                radixThreshold, universeThreshold, parallelThreshold);
+        return adaptive(radixThreshold, universeThreshold, parallelThreshold);
+    }
+
+    public int getRadixThreshold()
+    {
+        return radixThreshold;
+    }
+
+    public int getUniverseThreshold()
+    {
+        return universeThreshold;
+    }
+
+    public int getParallelThreshold()
+    {
+        return parallelThreshold;
+    }
+
+    /**
+     * @return Whether a call of this size should fork before the input is even validated.
+     */
+    boolean isParallel(int size)
+    {
+        return fixedEngine == null ? size >= parallelThreshold : fixedEngine == Engine.ForkJoin;
+    }
+
+    /**
+     * @return The serial engine for validated input of this size.
+     */
+    Engine select(int size, boolean presorted)
+    {
+        // The single pass is only correct on sorted input, so a fixed Presorted engine sorts anything else first
+        if (fixedEngine == Engine.Presorted && !presorted)
+        {
+            return Engine.SortMerge;
+        }
+
+        if (fixedEngine != null && fixedEngine != Engine.ForkJoin)
+        {
+            return fixedEngine;
+        }
+
+        if (presorted)
+        {
+            return Engine.Presorted;
+        }
+
+        if (size >= universeThreshold)
+        {
+            return Engine.FixedUniverse;
+        }
+
+        return size >= radixThreshold ? Engine.RadixSort : Engine.SortMerge;
+    }
+
+    // Best of a few runs, the first of which also warms up the code path.
+    private static long time(AlgorythmZipCode zipCode, int[] lowers, int[] uppers)
+    {
+        var best = Long.MAX_VALUE;
+        for (var run = 0; run < calibrationRuns; run++)
+        {
+            var start = System.nanoTime();
+            zipCode.compactRanges(lowers, uppers);
+            best = Math.min(best, System.nanoTime() - start);
+        }
+
+        return best;
+    }
+}
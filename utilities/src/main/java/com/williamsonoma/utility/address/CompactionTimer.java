@@ -0,0 +1,69 @@
+package com.williamsonoma.utility.address;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * Times the phases of one compaction call, allocation is measured for the calling thread only.
+ */
+final class CompactionTimer
+{
+    private static final CompactionTimer disabled = new CompactionTimer(CompactionMetrics.DISABLED);
+    private static final com.sun.management.ThreadMXBean threads = allocationCounter();
+
+    private final CompactionMetrics metrics;
+    private final long start;
+    private final long startAllocated;
+    private long mark;
+
+    private CompactionTimer(CompactionMetrics metrics)
+    {
+        this.metrics = metrics;
+        this.start = metrics.isEnabled() ? System.nanoTime() : 0;
+        this.startAllocated = metrics.isEnabled() ? allocatedBytes() : 0;
+        this.mark = start;
+    }
+
+    static CompactionTimer start(CompactionMetrics metrics)
+    {
+        return metrics.isEnabled() ? new CompactionTimer(metrics) : disabled;
+    }
+
+    void phase(CompactionMetrics.Phase phase)
+    {
+        if (this != disabled)
+        {
+            var now = System.nanoTime();
+            metrics.recordPhase(phase, now - mark);
+            mark = now;
+        }
+    }
+
+    void finish(int inputRanges, int outputRanges)
+    {
+        if (this != disabled)
+        {
+            var allocated = startAllocated < 0 ? -1 : allocatedBytes() - startAllocated;
+            metrics.recordCall(inputRanges, outputRanges, System.nanoTime() - start, allocated);
+        }
+    }
+
+    private static long allocatedBytes()
+    {
+        return threads == null ? -1 : threads.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    private static com.sun.management.ThreadMXBean allocationCounter()
+    {
+        var bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean)
+        {
+            var allocationBean = (com.sun.management.ThreadMXBean) bean;
+            if (allocationBean.isThreadAllocatedMemorySupported() && allocationBean.isThreadAllocatedMemoryEnabled())
+            {
+                return allocationBean;
+            }
+        }
+
+        return null;
+    }
+}
@@ -0,0 +1,70 @@
+package com.williamsonoma.utility.address;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import org.apache.logging.log4j.Logger;
+import org.apache.logging.log4j.LogManager;
+
+/**
+ * Allocates direct buffers and frees them without waiting for the garbage collector where the JVM allows it.
+ * A buffer must never be touched again once it has been freed.
+ */
+final class DirectBuffers
+{
+    private static final Logger logger = LogManager.getLogger(DirectBuffers.class);
+
+    private static final MethodHandle cleaner = findCleaner();
+
+    private DirectBuffers()
+    {
+    }
+
+    static ByteBuffer allocate(long bytes) throws IllegalArgumentException
+    {
+        if (bytes > Integer.MAX_VALUE)
+        {
+            throw new IllegalArgumentException("Off-heap buffers are limited to 2GB, " + bytes + " bytes requested.");
+        }
+
+        return ByteBuffer.allocateDirect((int) bytes).order(ByteOrder.nativeOrder());
+    }
+
+    static void free(ByteBuffer buffer)
+    {
+        if (buffer == null || cleaner == null)
+        {
+            return;
+        }
+
+        try
+        {
+            cleaner.invokeExact(buffer);
+        }
+        catch (Throwable e)
+        {
+            logger.debug("could not free direct buffer, leaving it to the garbage collector", e);
+        }
+    }
+
+    private static MethodHandle findCleaner()
+    {
+        try
+        {
+            var unsafeClass = Class.forName("sun.misc.Unsafe");
+            var theUnsafe = unsafeClass.getDeclaredField("theUnsafe");
+            theUnsafe.setAccessible(true);
+
+            return MethodHandles.lookup()
+                .findVirtual(unsafeClass, "invokeCleaner", MethodType.methodType(void.class, ByteBuffer.class))
+                .bindTo(theUnsafe.get(null));
+        }
+        catch (ReflectiveOperationException | RuntimeException e)
+        {
+            logger.info("direct buffers will be freed by the garbage collector, explicit freeing is not available: {}", e.toString());
+            return null;
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.williamsonoma.utility.address;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import org.apache.logging.log4j.Logger;
+import org.apache.logging.log4j.LogManager;
+import com.williamsonoma.api.model.address.ZipCodeRange;
+import com.williamsonoma.api.utility.address.ZipCode;
+
+/**
+ * Compacts zip code ranges by marking coverage over the fixed 100,000 zip code universe and sweeping it once.
+ */
+public class FixedUniverseZipCode implements ZipCode
+{
+    private static final Logger logger = LogManager.getLogger(FixedUniverseZipCode.class);
+
+    public Collection<ZipCodeRange> compactRanges(Collection<ZipCodeRange> ranges) throws IllegalArgumentException
+    {
+        if (ranges == null)
+        {
+            logger.warn("compactRanges called with null zip code range, returning empty range collection");
+            return new ArrayList<ZipCodeRange>();
+        }
+
+        var coverage = new ZipCodeCoverage();
+        for (var range : ranges)
+        {
+            ZipCodes.checkNotNull(range);
+
+            var lower = ZipCodes.parse(range.getLower());
+            var upper = ZipCodes.parse(range.getUpper());
+            ZipCodes.checkOrder(lower, upper);
+
+            coverage.add(lower, upper);
+        }
+
+        var compactedRanges = new ArrayList<ZipCodeRange>();
+        coverage.sweep((lower, upper) -> compactedRanges.add(new ZipCodeRange(ZipCodes.format(lower), ZipCodes.format(upper))));
+
+        logger.debug("compacted {} ranges into {}", ranges.size(), compactedRanges.size());
+        return compactedRanges;
+    }
+
+    public long[] compactRanges(int[] lowers, int[] uppers) throws IllegalArgumentException
+    {
+        if (lowers == null || uppers == null)
+        {
+            logger.warn("compactRanges called with null zip code bounds, returning empty range array");
+            return new long[0];
+        }
+
+        ZipCodes.checkLengths(lowers, uppers);
+
+        var coverage = new ZipCodeCoverage();
+        for (var i = 0; i < lowers.length; i++)
+        {
+            ZipCodes.checkZip(lowers[i]);
+            ZipCodes.checkZip(uppers[i]);
+            ZipCodes.checkOrder(lowers[i], uppers[i]);
+
+            coverage.add(lowers[i], uppers[i]);
+        }
+
+        return coverage.toPacked();
+    }
+
+    public Collection<ZipCodeRange> compactZipPlusFourRanges(Collection<ZipCodeRange> ranges) throws IllegalArgumentException
+    {
+        if (ranges == null)
+        {
+            logger.warn("compactZipPlusFourRanges called with null zip code range, returning empty range collection");
+            return new ArrayList<ZipCodeRange>();
+        }
+
+        return ZipPlusFourCompactor.compact(ranges);
+    }
+
+    public long[] compactZipPlusFourRanges(int[] lowers, int[] uppers) throws IllegalArgumentException
+    {
+        if (lowers == null || uppers == null)
+        {
+            logger.warn("compactZipPlusFourRanges called with null zip code bounds, returning empty range array");
+            return new long[0];
+        }
+
+        return ZipPlusFourCompactor.compact(lowers, uppers);
+    }
+}
@@ -0,0 +1,26 @@
+package com.williamsonoma.utility.address;
+
+import com.williamsonoma.api.model.address.ZipCodeRange;
+
+/**
+ * A zip code range that cannot be changed, for results shared between callers.
+ */
+final class ImmutableZipCodeRange extends ZipCodeRange
+{
+    ImmutableZipCodeRange(String lower, String upper)
+    {
+        super(lower, upper);
+    }
+
+    @Override
+    public void setLower(String x)
+    {
+        throw new UnsupportedOperationException("Shared zip code ranges cannot be changed.");
+    }
+
+    @Override
+    public void setUpper(String x)
+    {
+        throw new UnsupportedOperationException("Shared zip code ranges cannot be changed.");
+    }
+}
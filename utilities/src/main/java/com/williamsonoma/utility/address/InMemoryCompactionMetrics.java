@@ -0,0 +1,223 @@
+package com.williamsonoma.utility.address;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * In-memory phase timers, size histograms and allocation totals for compaction calls.
+ */
+public class InMemoryCompactionMetrics implements CompactionMetrics
+{
+    private static final int BUCKETS = 33;
+
+    private final Map<Phase, Timer> phases = new EnumMap<Phase, Timer>(Phase.class);
+    private final Timer calls = new Timer();
+    private final LongAdder inputRanges = new LongAdder();
+    private final LongAdder outputRanges = new LongAdder();
+    private final LongAdder allocatedBytes = new LongAdder();
+    private final LongAccumulator maxAllocatedBytes = new LongAccumulator(Math::max, 0);
+    private final AtomicLongArray inputSizes = new AtomicLongArray(BUCKETS);
+    private final AtomicLongArray outputSizes = new AtomicLongArray(BUCKETS);
+
+    public InMemoryCompactionMetrics()
+    {
+        for (var phase : Phase.values())
+        {
+            phases.put(phase, new Timer());
+        }
+    }
+
+    @Override
+    public boolean isEnabled()
+    {
+        return true;
+    }
+
+    @Override
+    public void recordPhase(Phase phase, long elapsedNanos)
+    {
+        phases.get(phase).record(elapsedNanos);
+    }
+
+    @Override
+    public void recordCall(int inputRanges, int outputRanges, long elapsedNanos, long allocatedBytes)
+    {
+        calls.record(elapsedNanos);
+        this.inputRanges.add(inputRanges);
+        this.outputRanges.add(outputRanges);
+        inputSizes.incrementAndGet(bucket(inputRanges));
+        outputSizes.incrementAndGet(bucket(outputRanges));
+
+        if (allocatedBytes >= 0)
+        {
+            this.allocatedBytes.add(allocatedBytes);
+            maxAllocatedBytes.accumulate(allocatedBytes);
+        }
+    }
+
+    public long getCallCount()
+    {
+        return calls.count.sum();
+    }
+
+    public long getCallNanos()
+    {
+        return calls.nanos.sum();
+    }
+
+    public long getPhaseCount(Phase phase)
+    {
+        return phases.get(phase).count.sum();
+    }
+
+    public long getPhaseNanos(Phase phase)
+    {
+        return phases.get(phase).nanos.sum();
+    }
+
+    public long getPhaseMaxNanos(Phase phase)
+    {
+        return phases.get(phase).maxNanos.get();
+    }
+
+    public long getInputRanges()
+    {
+        return inputRanges.sum();
+    }
+
+    public long getOutputRanges()
+    {
+        return outputRanges.sum();
+    }
+
+    /**
+     * @return Input ranges per compacted output range across all calls, or 0 before any output.
+     */
+    public double getCompactionRatio()
+    {
+        var output = outputRanges.sum();
+        return output == 0 ? 0.0 : (double) inputRanges.sum() / output;
+    }
+
+    public long getAllocatedBytes()
+    {
+        return allocatedBytes.sum();
+    }
+
+    public long getMaxAllocatedBytes()
+    {
+        return maxAllocatedBytes.get();
+    }
+
+    /**
+     * @return Call counts by input size. Bucket 0 counts empty inputs and bucket n counts sizes from 2^(n-1) to 2^n - 1.
+     */
+    public long[] getInputSizeHistogram()
+    {
+        return toArray(inputSizes);
+    }
+
+    /**
+     * @return Call counts by output size, bucketed like the input size histogram.
+     */
+    public long[] getOutputSizeHistogram()
+    {
+        return toArray(outputSizes);
+    }
+
+    public void reset()
+    {
+        for (var timer : phases.values())
+        {
+            timer.reset();
+        }
+
+        calls.reset();
+        inputRanges.reset();
+        outputRanges.reset();
+        allocatedBytes.reset();
+        maxAllocatedBytes.reset();
+        for (var i = 0; i < BUCKETS; i++)
+        {
+            inputSizes.set(i, 0);
+            outputSizes.set(i, 0);
+        }
+    }
+
+    public String dump()
+    {
+        var report = new StringBuilder();
+        report.append(String.format("compactRanges calls %d, total %d us%n", getCallCount(), getCallNanos() / 1000));
+        for (var phase : Phase.values())
+        {
+            var timer = phases.get(phase);
+            if (timer.count.sum() > 0)
+            {
+                report.append(String.format("   %-18s count %d, total %d us, max %d us%n",
+                        phase, timer.count.sum(), timer.nanos.sum() / 1000, timer.maxNanos.get() / 1000));
+            }
+        }
+
+        report.append(String.format("   ranges in %d, out %d, compaction ratio %.2f%n", getInputRanges(), getOutputRanges(), getCompactionRatio()));
+        report.append(String.format("   allocated bytes %d, max per call %d%n", getAllocatedBytes(), getMaxAllocatedBytes()));
+        appendHistogram(report, "input sizes", inputSizes);
+        appendHistogram(report, "output sizes", outputSizes);
+
+        return report.toString();
+    }
+
+    private static void appendHistogram(StringBuilder report, String name, AtomicLongArray buckets)
+    {
+        report.append("   ").append(name);
+        for (var i = 0; i < BUCKETS; i++)
+        {
+            var count = buckets.get(i);
+            if (count > 0)
+            {
+                report.append(String.format(" [<%d]=%d", 1L << i, count));
+            }
+        }
+
+        report.append(String.format("%n"));
+    }
+
+    private static int bucket(int size)
+    {
+        return 32 - Integer.numberOfLeadingZeros(size);
+    }
+
+    private static long[] toArray(AtomicLongArray buckets)
+    {
+        var counts = new long[BUCKETS];
+        for (var i = 0; i < BUCKETS; i++)
+        {
+            counts[i] = buckets.get(i);
+        }
+
+        return counts;
+    }
+
+    private static class Timer
+    {
+        private final LongAdder count = new LongAdder();
+        private final LongAdder nanos = new LongAdder();
+        private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+
+        void record(long elapsedNanos)
+        {
+            count.increment();
+            nanos.add(elapsedNanos);
+            maxNanos.accumulate(elapsedNanos);
+        }
+
+        void reset()
+        {
+            count.reset();
+            nanos.reset();
+            maxNanos.reset();
+        }
+    }
+}
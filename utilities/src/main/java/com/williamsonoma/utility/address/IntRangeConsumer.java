@@ -0,0 +1,10 @@
+package com.williamsonoma.utility.address;
+
+/**
+ * Receives compacted ranges as primitive bounds, in ascending order.
+ */
+@FunctionalInterface
+interface IntRangeConsumer
+{
+    void accept(int lower, int upper);
+}
@@ -0,0 +1,164 @@
+package com.williamsonoma.utility.address;
+
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.util.Collection;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import com.williamsonoma.api.model.address.PackedZipCodeRange;
+import com.williamsonoma.api.model.address.ZipCodeRange;
+
+/**
+ * Compacted zip code ranges read straight from a mapped range file, unmapped by close().
+ * close() waits for reads already in progress, and every call after it fails rather than reading unmapped memory.
+ *
+ * @see ZipCodeRangeFile
+ */
+public final class MappedZipCodeRangeSet implements AutoCloseable
+{
+    private final ByteBuffer memory;
+    private final IntBuffer bounds;
+    private final int size;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private boolean closed;
+
+    /**
+     * @param memory The buffer that bounds views, freed by close().
+     */
+    MappedZipCodeRangeSet(ByteBuffer memory, IntBuffer bounds, int size)
+    {
+        this.memory = memory;
+        this.bounds = bounds;
+        this.size = size;
+    }
+
+    public boolean contains(int zip)
+    {
+        lock.readLock().lock();
+        try
+        {
+            checkOpen();
+
+            // Find the last range whose lower bound is not above the zip
+            var low = 0;
+            var high = size - 1;
+            while (low <= high)
+            {
+                var middle = (low + high) >>> 1;
+                if (bounds.get(middle << 1) <= zip)
+                {
+                    low = middle + 1;
+                }
+                else
+                {
+                    high = middle - 1;
+                }
+            }
+
+            return high >= 0 && bounds.get((high << 1) + 1) >= zip;
+        }
+        finally
+        {
+            lock.readLock().unlock();
+        }
+    }
+
+    public boolean contains(String zip) throws IllegalArgumentException
+    {
+        return contains(ZipCodes.parse(zip));
+    }
+
+    public int size()
+    {
+        lock.readLock().lock();
+        try
+        {
+            checkOpen();
+            return size;
+        }
+        finally
+        {
+            lock.readLock().unlock();
+        }
+    }
+
+    public boolean isEmpty()
+    {
+        return size() == 0;
+    }
+
+    public int lower(int index)
+    {
+        return bound(index << 1);
+    }
+
+    public int upper(int index)
+    {
+        return bound((index << 1) + 1);
+    }
+
+    public ZipCodeRangeSet toRangeSet()
+    {
+        lock.readLock().lock();
+        try
+        {
+            checkOpen();
+            var packedRanges = new long[size];
+            for (var i = 0; i < size; i++)
+            {
+                packedRanges[i] = PackedZipCodeRange.pack(bounds.get(i << 1), bounds.get((i << 1) + 1));
+            }
+
+            return ZipCodeRangeSet.fromCompacted(packedRanges, size);
+        }
+        finally
+        {
+            lock.readLock().unlock();
+        }
+    }
+
+    public Collection<ZipCodeRange> toRanges()
+    {
+        return toRangeSet().toRanges();
+    }
+
+    @Override
+    public void close()
+    {
+        lock.writeLock().lock();
+        try
+        {
+            if (!closed)
+            {
+                closed = true;
+                DirectBuffers.free(memory);
+            }
+        }
+        finally
+        {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private int bound(int index)
+    {
+        lock.readLock().lock();
+        try
+        {
+            checkOpen();
+            return bounds.get(index);
+        }
+        finally
+        {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void checkOpen()
+    {
+        if (closed)
+        {
+            throw new IllegalStateException("Zip code range set is closed.");
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package com.williamsonoma.utility.address;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.TreeMap;
+import com.williamsonoma.api.model.address.PackedZipCodeRange;
+import com.williamsonoma.api.model.address.ZipCodeRange;
+
+/**
+ * A compacted set of zip code ranges edited in place. Not thread safe.
+ */
+public class MutableZipCodeRangeSet
+{
+    private final TreeMap<Integer, Integer> ranges = new TreeMap<Integer, Integer>();
+
+    public MutableZipCodeRangeSet()
+    {
+    }
+
+    public MutableZipCodeRangeSet(Collection<ZipCodeRange> ranges) throws IllegalArgumentException
+    {
+        for (var range : ranges)
+        {
+            add(range);
+        }
+    }
+
+    public void add(ZipCodeRange range) throws IllegalArgumentException
+    {
+        var packedRange = ZipCodes.parseRange(range);
+        addRange(PackedZipCodeRange.lower(packedRange), PackedZipCodeRange.upper(packedRange));
+    }
+
+    public void add(int lower, int upper) throws IllegalArgumentException
+    {
+        ZipCodes.checkRange(lower, upper);
+        addRange(lower, upper);
+    }
+
+    public void remove(ZipCodeRange range) throws IllegalArgumentException
+    {
+        var packedRange = ZipCodes.parseRange(range);
+        removeRange(PackedZipCodeRange.lower(packedRange), PackedZipCodeRange.upper(packedRange));
+    }
+
+    public void remove(int lower, int upper) throws IllegalArgumentException
+    {
+        ZipCodes.checkRange(lower, upper);
+        removeRange(lower, upper);
+    }
+
+    public boolean contains(int zip)
+    {
+        var range = ranges.floorEntry(zip);
+        return range != null && range.getValue() >= zip;
+    }
+
+    public int size()
+    {
+        return ranges.size();
+    }
+
+    public boolean isEmpty()
+    {
+        return ranges.isEmpty();
+    }
+
+    public Collection<ZipCodeRange> toRanges()
+    {
+        var compactedRanges = new ArrayList<ZipCodeRange>(ranges.size());
+        for (var range : ranges.entrySet())
+        {
+            compactedRanges.add(new ZipCodeRange(ZipCodes.format(range.getKey()), ZipCodes.format(range.getValue())));
+        }
+
+        return compactedRanges;
+    }
+
+    public ZipCodeRangeSet snapshot()
+    {
+        var packedRanges = new long[ranges.size()];
+        var size = 0;
+        for (var range : ranges.entrySet())
+        {
+            packedRanges[size++] = PackedZipCodeRange.pack(range.getKey(), range.getValue());
+        }
+
+        return ZipCodeRangeSet.fromCompacted(packedRanges, size);
+    }
+
+    private void addRange(int lower, int upper)
+    {
+        // Absorb a range that starts before this one and overlaps or touches it, ie: 1-3 plus 4-7 is 1-7
+        var previous = ranges.floorEntry(lower);
+        if (previous != null && previous.getValue() >= lower - 1)
+        {
+            if (previous.getValue() >= upper)
+            {
+                return;
+            }
+
+            lower = previous.getKey();
+        }
+
+        // Absorb every range that starts inside or right after this one
+        var next = ranges.ceilingEntry(lower);
+        while (next != null && next.getKey() <= upper + 1)
+        {
+            upper = Math.max(upper, next.getValue());
+            ranges.remove(next.getKey());
+            next = ranges.higherEntry(next.getKey());
+        }
+
+        ranges.put(lower, upper);
+    }
+
+    private void removeRange(int lower, int upper)
+    {
+        // Trim or split a range that starts before the removed one
+        var previous = ranges.lowerEntry(lower);
+        if (previous != null && previous.getValue() >= lower)
+        {
+            ranges.put(previous.getKey(), lower - 1);
+            if (previous.getValue() > upper)
+            {
+                ranges.put(upper + 1, previous.getValue());
+                return;
+            }
+        }
+
+        // Drop every range that starts inside the removed one, keeping any tail past its upper bound
+        var next = ranges.ceilingEntry(lower);
+        while (next != null && next.getKey() <= upper)
+        {
+            ranges.remove(next.getKey());
+            if (next.getValue() > upper)
+            {
+                ranges.put(upper + 1, next.getValue());
+                return;
+            }
+
+            next = ranges.higherEntry(next.getKey());
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package com.williamsonoma.utility.address;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.channels.ReadableByteChannel;
+import com.williamsonoma.api.model.address.ZipCodeRange;
+
+/**
+ * Compacts very large inputs with the bounds, sort scratch space and result held in direct buffers, freed by close().
+ * Calls are serialized, so close() never frees a buffer that another thread is adding to or sorting.
+ */
+public final class OffHeapZipCodeCompactor implements AutoCloseable
+{
+    private final int[] counts = new int[RadixBoundCompactor.RADIX];
+    private ByteBuffer boundMemory;
+    private IntBuffer bounds;
+    private ByteBuffer scratchMemory;
+    private int size;
+    private boolean closed;
+
+    public OffHeapZipCodeCompactor()
+    {
+        this(1 << 16);
+    }
+
+    /**
+     * @param initialRanges Room for this many ranges before the buffers grow, 16 bytes each.
+     */
+    public OffHeapZipCodeCompactor(int initialRanges)
+    {
+        boundMemory = DirectBuffers.allocate(Math.max(1, initialRanges) * 2L * Integer.BYTES);
+        bounds = boundMemory.asIntBuffer();
+    }
+
+    public synchronized void add(int lower, int upper) throws IllegalArgumentException
+    {
+        ZipCodes.checkRange(lower, upper);
+        checkOpen();
+
+        if (size * 2 == bounds.capacity())
+        {
+            grow();
+        }
+
+        bounds.put(size * 2, RadixBoundCompactor.lowerBound(lower));
+        bounds.put(size * 2 + 1, RadixBoundCompactor.upperBound(upper));
+        size++;
+    }
+
+    public void add(ZipCodeRange range) throws IllegalArgumentException
+    {
+        ZipCodes.checkNotNull(range);
+        add(ZipCodes.parse(range.getLower()), ZipCodes.parse(range.getUpper()));
+    }
+
+    public void add(int[] lowers, int[] uppers) throws IllegalArgumentException
+    {
+        ZipCodes.checkLengths(lowers, uppers);
+        for (var i = 0; i < lowers.length; i++)
+        {
+            add(lowers[i], uppers[i]);
+        }
+    }
+
+    /**
+     * Add every range of a range file or stream, in any of the layouts ZipCodeRangeReader accepts, without creating a ZipCodeRange per line.
+     */
+    public void add(ReadableByteChannel channel) throws IOException, IllegalArgumentException
+    {
+        ZipCodeRangeReader.read(channel, this::add);
+    }
+
+    public synchronized int size()
+    {
+        return size;
+    }
+
+    /**
+     * Compact the ranges added so far. More ranges may still be added and compacted again afterwards.
+     *
+     * @return The compacted ranges in their own direct buffer, which the caller must close.
+     */
+    public synchronized OffHeapZipCodeRangeSet compact()
+    {
+        checkOpen();
+
+        var count = size * 2;
+        if (scratchMemory == null || scratchMemory.capacity() < count * Integer.BYTES)
+        {
+            DirectBuffers.free(scratchMemory);
+            scratchMemory = DirectBuffers.allocate(boundMemory.capacity());
+        }
+
+        var scratch = scratchMemory.asIntBuffer();
+        RadixBoundCompactor.sort(bounds, scratch, count, counts);
+        var compacted = RadixBoundCompactor.sweep(bounds, count, scratch);
+
+        var resultMemory = DirectBuffers.allocate(compacted * 2L * Integer.BYTES);
+        var result = resultMemory.asIntBuffer();
+        for (var i = 0; i < compacted * 2; i++)
+        {
+            result.put(i, scratch.get(i));
+        }
+
+        return new OffHeapZipCodeRangeSet(resultMemory, result, compacted);
+    }
+
+    @Override
+    public synchronized void close()
+    {
+        if (!closed)
+        {
+            closed = true;
+            bounds = null;
+            DirectBuffers.free(boundMemory);
+            DirectBuffers.free(scratchMemory);
+            boundMemory = null;
+            scratchMemory = null;
+        }
+    }
+
+    private void checkOpen()
+    {
+        if (closed)
+        {
+            throw new IllegalStateException("Off-heap compactor is closed.");
+        }
+    }
+
+    private void grow()
+    {
+        var grown = DirectBuffers.allocate(boundMemory.capacity() * 2L);
+        var grownBounds = grown.asIntBuffer();
+        for (var i = 0; i < size * 2; i++)
+        {
+            grownBounds.put(i, bounds.get(i));
+        }
+
+        DirectBuffers.free(boundMemory);
+        boundMemory = grown;
+        bounds = grownBounds;
+    }
+}
@@ -0,0 +1,69 @@
+package com.williamsonoma.utility.address;
+
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.util.Collection;
+import com.williamsonoma.api.model.address.ZipCodeRange;
+
+/**
+ * Compacted zip code ranges in a direct buffer the set owns, freed by close().
+ * Reads are guarded like MappedZipCodeRangeSet, so close() waits for lookups in progress and later calls fail.
+ */
+public final class OffHeapZipCodeRangeSet implements AutoCloseable
+{
+    private final MappedZipCodeRangeSet ranges;
+
+    OffHeapZipCodeRangeSet(ByteBuffer memory, IntBuffer bounds, int size)
+    {
+        this.ranges = new MappedZipCodeRangeSet(memory, bounds, size);
+    }
+
+    public boolean contains(int zip)
+    {
+        return ranges.contains(zip);
+    }
+
+    public boolean contains(String zip) throws IllegalArgumentException
+    {
+        return ranges.contains(zip);
+    }
+
+    public int size()
+    {
+        return ranges.size();
+    }
+
+    public boolean isEmpty()
+    {
+        return ranges.isEmpty();
+    }
+
+    public int lower(int index)
+    {
+        return ranges.lower(index);
+    }
+
+    public int upper(int index)
+    {
+        return ranges.upper(index);
+    }
+
+    /**
+     * @return An on-heap copy of the ranges, which stays usable after this set is closed.
+     */
+    public ZipCodeRangeSet toRangeSet()
+    {
+        return ranges.toRangeSet();
+    }
+
+    public Collection<ZipCodeRange> toRanges()
+    {
+        return ranges.toRanges();
+    }
+
+    @Override
+    public void close()
+    {
+        ranges.close();
+    }
+}
@@ -0,0 +1,87 @@
+package com.williamsonoma.utility.address;
+
+import java.util.Arrays;
+import com.williamsonoma.api.model.address.PackedZipCodeRange;
+
+/**
+ * Linear operations over sorted arrays of packed zip code ranges.
+ */
+final class PackedRanges
+{
+    private PackedRanges()
+    {
+    }
+
+    /**
+     * Coalesce overlapping and adjacent ranges of a sorted array in place.
+     *
+     * @return The number of compacted ranges now at the front of the array.
+     */
+    static int coalesce(long[] ranges, int size)
+    {
+        if (size == 0)
+        {
+            return 0;
+        }
+
+        var count = 0;
+        var lower = PackedZipCodeRange.lower(ranges[0]);
+        var upper = PackedZipCodeRange.upper(ranges[0]);
+        for (var i = 1; i < size; i++)
+        {
+            var nextLower = PackedZipCodeRange.lower(ranges[i]);
+            var nextUpper = PackedZipCodeRange.upper(ranges[i]);
+
+            if (nextLower > upper + 1)
+            {
+                ranges[count++] = PackedZipCodeRange.pack(lower, upper);
+                lower = nextLower;
+                upper = nextUpper;
+            }
+            else if (nextUpper > upper)
+            {
+                upper = nextUpper;
+            }
+        }
+
+        ranges[count++] = PackedZipCodeRange.pack(lower, upper);
+        return count;
+    }
+
+    /**
+     * Merge two compacted arrays into one, coalescing ranges that overlap or touch across the two.
+     */
+    static long[] union(long[] a, long[] b)
+    {
+        if (a.length == 0)
+        {
+            return b;
+        }
+
+        if (b.length == 0)
+        {
+            return a;
+        }
+
+        var merged = new long[a.length + b.length];
+        var i = 0;
+        var j = 0;
+        var k = 0;
+        while (i < a.length && j < b.length)
+        {
+            merged[k++] = a[i] <= b[j] ? a[i++] : b[j++];
+        }
+
+        while (i < a.length)
+        {
+            merged[k++] = a[i++];
+        }
+
+        while (j < b.length)
+        {
+            merged[k++] = b[j++];
+        }
+
+        return Arrays.copyOf(merged, coalesce(merged, k));
+    }
+}
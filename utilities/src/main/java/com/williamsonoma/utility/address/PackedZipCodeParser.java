@@ -0,0 +1,81 @@
+package com.williamsonoma.utility.address;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import com.williamsonoma.api.model.address.PackedZipCodeRange;
+
+/**
+ * Parses ranges packed as 10 ASCII digits, eight bytes at a time inside a long.
+ */
+final class PackedZipCodeParser
+{
+    static final int PAIR_LENGTH = 10;
+
+    private static final long ZEROS = 0x3030303030303030L;
+    private static final long ABOVE_NINE = 0x4646464646464646L;
+    private static final long HIGH_BITS = 0x8080808080808080L;
+    private static final long UPPER_BYTES = 0xFFFFFFFFFF000000L;
+
+    private PackedZipCodeParser()
+    {
+    }
+
+    /**
+     * @return A little endian view of the pairs, from their position to their limit, for range().
+     */
+    static ByteBuffer view(ByteBuffer pairs) throws IllegalArgumentException
+    {
+        if (pairs.remaining() % PAIR_LENGTH != 0)
+        {
+            throw new IllegalArgumentException("Packed zip code ranges must be 10 digits each, " + pairs.remaining() + " bytes given.");
+        }
+
+        return pairs.slice().order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    static int size(ByteBuffer view)
+    {
+        return view.limit() / PAIR_LENGTH;
+    }
+
+    /**
+     * @return The range at the index of a view, validated as ZipCodes.parseRange would, with the index in any error.
+     */
+    static long range(ByteBuffer view, int index) throws IllegalArgumentException
+    {
+        var offset = index * PAIR_LENGTH;
+
+        // Bytes 0 to 7 hold the lower bound and the first 3 digits of the upper, bytes 2 to 9 the last 3 digits of the lower and the upper
+        var head = view.getLong(offset);
+        var tail = view.getLong(offset + 2);
+        if (!isDigits(head) || !isDigits(tail))
+        {
+            throw new IllegalArgumentException("Zip code values must be 5 digits, invalid range at index " + index + ".");
+        }
+
+        // Move each bound to the top five bytes, leaving three leading zeros for an eight digit parse
+        var lower = parseEightDigits(head << 24);
+        var upper = parseEightDigits(tail & UPPER_BYTES);
+        if (lower > upper)
+        {
+            throw new IllegalArgumentException("Zip code range lower bound cannot be greater than upper bound, invalid range at index " + index + ".");
+        }
+
+        return PackedZipCodeRange.pack(lower, upper);
+    }
+
+    // Every byte from '0' to '9': subtracting '0' sets the high bit of anything below it, adding 0x46 that of anything above '9'.
+    private static boolean isDigits(long chars)
+    {
+        return (((chars - ZEROS) | (chars + ABOVE_NINE)) & HIGH_BITS) == 0;
+    }
+
+    // Combine neighbouring digits, then neighbouring pairs, then neighbouring quads, the first digit being in the lowest byte.
+    // Zero bytes count as leading zeros, so the low nibble mask is enough to turn '0' to '9' and 0 into digit values.
+    private static int parseEightDigits(long chars)
+    {
+        var value = ((chars & 0x0F0F0F0F0F0F0F0FL) * (10 << 8 | 1)) >>> 8;
+        value = ((value & 0x00FF00FF00FF00FFL) * (100 << 16 | 1)) >>> 16;
+        return (int) (((value & 0x0000FFFF0000FFFFL) * (10000L << 32 | 1)) >>> 32);
+    }
+}
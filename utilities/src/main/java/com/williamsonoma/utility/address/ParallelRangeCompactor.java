@@ -0,0 +1,77 @@
+package com.williamsonoma.utility.address;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.IntToLongFunction;
+
+/**
+ * Fork/join compaction, each slice is sorted and coalesced and the results merged pairwise.
+ */
+final class ParallelRangeCompactor
+{
+    static final int SLICE_SIZE = 1 << 14;
+
+    private final ForkJoinPool pool;
+
+    ParallelRangeCompactor(ForkJoinPool pool)
+    {
+        this.pool = pool;
+    }
+
+    /**
+     * @param size The number of input ranges.
+     * @param rangeAt Produces the validated, packed range at an index. Called once per index, from any worker.
+     * @return The compacted ranges in ascending order.
+     */
+    long[] compact(int size, IntToLongFunction rangeAt)
+    {
+        return pool.invoke(new CompactTask(rangeAt, 0, size));
+    }
+
+    // Package visible so callers already running inside a fork/join task can invoke it in their own pool.
+    static class CompactTask extends RecursiveTask<long[]>
+    {
+        private final IntToLongFunction rangeAt;
+        private final int from;
+        private final int to;
+
+        CompactTask(IntToLongFunction rangeAt, int from, int to)
+        {
+            this.rangeAt = rangeAt;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected long[] compute()
+        {
+            if (to - from <= SLICE_SIZE)
+            {
+                return compactSlice();
+            }
+
+            var middle = (from + to) >>> 1;
+            var left = new CompactTask(rangeAt, from, middle);
+            var right = new CompactTask(rangeAt, middle, to);
+
+            left.fork();
+            var rightRanges = right.compute();
+            var leftRanges = left.join();
+
+            return PackedRanges.union(leftRanges, rightRanges);
+        }
+
+        private long[] compactSlice()
+        {
+            var ranges = new long[to - from];
+            for (var i = from; i < to; i++)
+            {
+                ranges[i - from] = rangeAt.applyAsLong(i);
+            }
+
+            Arrays.sort(ranges);
+            return Arrays.copyOf(ranges, PackedRanges.coalesce(ranges, ranges.length));
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.williamsonoma.utility.address;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collection;
+import com.williamsonoma.api.model.address.PackedZipCodeRange;
+import com.williamsonoma.api.model.address.ZipCodeRange;
+import com.williamsonoma.api.model.address.ZipCodeRangeCodec;
+
+/**
+ * The compacted ranges of one subset of a larger input, mergeable in any order.
+ */
+public final class PartialCompaction
+{
+    public static final PartialCompaction EMPTY = new PartialCompaction(new long[0]);
+
+    private final long[] packedRanges;
+
+    // Takes ownership of a sorted array of compacted packed ranges.
+    PartialCompaction(long[] packedRanges)
+    {
+        this.packedRanges = packedRanges;
+    }
+
+    public static PartialCompaction decode(byte[] encoded) throws IOException, IllegalArgumentException
+    {
+        var packedRanges = ZipCodeRangeCodec.decode(encoded);
+        for (var range : packedRanges)
+        {
+            ZipCodes.checkRange(PackedZipCodeRange.lower(range), PackedZipCodeRange.upper(range));
+        }
+
+        // The codec only guarantees ascending ranges without overlap, adjacent ranges may still need coalescing
+        return new PartialCompaction(Arrays.copyOf(packedRanges, PackedRanges.coalesce(packedRanges, packedRanges.length)));
+    }
+
+    /**
+     * Merge with the partial result of another subset, in one linear pass over both.
+     */
+    public PartialCompaction merge(PartialCompaction other)
+    {
+        return new PartialCompaction(PackedRanges.union(packedRanges, other.packedRanges));
+    }
+
+    public byte[] encode()
+    {
+        return ZipCodeRangeCodec.encode(packedRanges);
+    }
+
+    public int size()
+    {
+        return packedRanges.length;
+    }
+
+    public long[] toPacked()
+    {
+        return packedRanges.clone();
+    }
+
+    public ZipCodeRangeSet toRangeSet()
+    {
+        return ZipCodeRangeSet.fromCompacted(packedRanges, packedRanges.length);
+    }
+
+    public Collection<ZipCodeRange> toRanges()
+    {
+        return toRangeSet().toRanges();
+    }
+}
@@ -0,0 +1,255 @@
+package com.williamsonoma.utility.address;
+
+import java.nio.IntBuffer;
+import java.util.Arrays;
+import com.williamsonoma.api.model.address.PackedZipCodeRange;
+
+/**
+ * Compacts ranges by radix sorting their bounds, packed as zip code << 1 | type, and sweeping them with a depth counter.
+ */
+final class RadixBoundCompactor
+{
+    private static final int LOWER = 0;
+    private static final int UPPER = 1;
+
+    private static final int RADIX_BITS = 9;
+    static final int RADIX = 1 << RADIX_BITS;
+    private static final int MASK = RADIX - 1;
+
+    // Larger scratch arrays are used once and left for the garbage collector rather than pinned to the thread
+    private static final int MAX_RETAINED_BOUNDS = 1 << 16;
+
+    private static final ThreadLocal<Scratch> scratch = ThreadLocal.withInitial(Scratch::new);
+
+    private RadixBoundCompactor()
+    {
+    }
+
+    /**
+     * Compact validated packed ranges in place.
+     *
+     * @return The number of compacted ranges now at the front of the array, in ascending order.
+     */
+    static int compact(long[] ranges, int size, CompactionTimer timer)
+    {
+        var buffers = scratch.get();
+        var count = size * 2;
+        var bounds = buffers.bounds(count);
+        var sorted = buffers.sorted(count);
+
+        for (var i = 0; i < size; i++)
+        {
+            bounds[2 * i] = lowerBound(PackedZipCodeRange.lower(ranges[i]));
+            bounds[2 * i + 1] = upperBound(PackedZipCodeRange.upper(ranges[i]));
+        }
+
+        timer.phase(CompactionMetrics.Phase.BoundInsertion);
+
+        sort(bounds, sorted, count, buffers.counts);
+
+        timer.phase(CompactionMetrics.Phase.Sorting);
+
+        var compacted = sweep(bounds, count, sorted);
+        for (var i = 0; i < compacted; i++)
+        {
+            ranges[i] = PackedZipCodeRange.pack(sorted[2 * i], sorted[2 * i + 1]);
+        }
+
+        timer.phase(CompactionMetrics.Phase.Extraction);
+
+        return compacted;
+    }
+
+    static int lowerBound(int zip)
+    {
+        return zip << 1 | LOWER;
+    }
+
+    static int upperBound(int zip)
+    {
+        return zip << 1 | UPPER;
+    }
+
+    /**
+     * Sort bounds in place, using scratch as the second buffer.
+     */
+    static void sort(int[] bounds, int[] scratch, int count, int[] counts)
+    {
+        sortPass(bounds, scratch, count, 0, counts);
+        sortPass(scratch, bounds, count, RADIX_BITS, counts);
+    }
+
+    static void sort(IntBuffer bounds, IntBuffer scratch, int count, int[] counts)
+    {
+        sortPass(bounds, scratch, count, 0, counts);
+        sortPass(scratch, bounds, count, RADIX_BITS, counts);
+    }
+
+    /**
+     * Write the compacted ranges of sorted bounds to output as lower and upper bound pairs, which may be the scratch
+     * buffer from sort().
+     *
+     * @return The number of compacted ranges.
+     */
+    static int sweep(int[] bounds, int count, int[] output)
+    {
+        var compacted = 0;
+        var depth = 0;
+        var lower = -1;
+        var upper = -1;
+        for (var i = 0; i < count; i++)
+        {
+            var bound = bounds[i];
+            var zip = bound >>> 1;
+            if ((bound & 1) == LOWER)
+            {
+                if (depth++ == 0)
+                {
+                    if (lower < 0)
+                    {
+                        lower = zip;
+                    }
+                    else if (zip > upper + 1)
+                    {
+                        output[2 * compacted] = lower;
+                        output[2 * compacted++ + 1] = upper;
+                        lower = zip;
+                    }
+                }
+            }
+            else if (--depth == 0)
+            {
+                upper = zip;
+            }
+        }
+
+        if (lower > -1)
+        {
+            output[2 * compacted] = lower;
+            output[2 * compacted++ + 1] = upper;
+        }
+
+        return compacted;
+    }
+
+    static int sweep(IntBuffer bounds, int count, IntBuffer output)
+    {
+        var compacted = 0;
+        var depth = 0;
+        var lower = -1;
+        var upper = -1;
+        for (var i = 0; i < count; i++)
+        {
+            var bound = bounds.get(i);
+            var zip = bound >>> 1;
+            if ((bound & 1) == LOWER)
+            {
+                if (depth++ == 0)
+                {
+                    if (lower < 0)
+                    {
+                        lower = zip;
+                    }
+                    else if (zip > upper + 1)
+                    {
+                        output.put(2 * compacted, lower);
+                        output.put(2 * compacted++ + 1, upper);
+                        lower = zip;
+                    }
+                }
+            }
+            else if (--depth == 0)
+            {
+                upper = zip;
+            }
+        }
+
+        if (lower > -1)
+        {
+            output.put(2 * compacted, lower);
+            output.put(2 * compacted++ + 1, upper);
+        }
+
+        return compacted;
+    }
+
+    private static void sortPass(int[] from, int[] to, int count, int shift, int[] counts)
+    {
+        Arrays.fill(counts, 0);
+        for (var i = 0; i < count; i++)
+        {
+            counts[(from[i] >>> shift) & MASK]++;
+        }
+
+        toOffsets(counts);
+        for (var i = 0; i < count; i++)
+        {
+            var bound = from[i];
+            to[counts[(bound >>> shift) & MASK]++] = bound;
+        }
+    }
+
+    private static void sortPass(IntBuffer from, IntBuffer to, int count, int shift, int[] counts)
+    {
+        Arrays.fill(counts, 0);
+        for (var i = 0; i < count; i++)
+        {
+            counts[(from.get(i) >>> shift) & MASK]++;
+        }
+
+        toOffsets(counts);
+        for (var i = 0; i < count; i++)
+        {
+            var bound = from.get(i);
+            to.put(counts[(bound >>> shift) & MASK]++, bound);
+        }
+    }
+
+    private static void toOffsets(int[] counts)
+    {
+        var offset = 0;
+        for (var digit = 0; digit < RADIX; digit++)
+        {
+            var digitCount = counts[digit];
+            counts[digit] = offset;
+            offset += digitCount;
+        }
+    }
+
+    private static class Scratch
+    {
+        private final int[] counts = new int[RADIX];
+        private int[] bounds = new int[0];
+        private int[] sorted = new int[0];
+
+        int[] bounds(int count)
+        {
+            if (count > MAX_RETAINED_BOUNDS)
+            {
+                return new int[count];
+            }
+
+            if (bounds.length < count)
+            {
+                bounds = new int[count];
+            }
+
+            return bounds;
+        }
+
+        int[] sorted(int count)
+        {
+            if (count > MAX_RETAINED_BOUNDS)
+            {
+                return new int[count];
+            }
+
+            if (sorted.length < count)
+            {
+                sorted = new int[count];
+            }
+
+            return sorted;
+        }
+    }
+}
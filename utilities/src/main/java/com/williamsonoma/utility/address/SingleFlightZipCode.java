@@ -0,0 +1,139 @@
+package com.williamsonoma.utility.address;
+
+import java.util.Collection;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import org.apache.logging.log4j.Logger;
+import org.apache.logging.log4j.LogManager;
+import com.williamsonoma.api.model.address.ZipCodeRange;
+import com.williamsonoma.api.utility.address.ZipCode;
+import com.williamsonoma.utility.address.CachingZipCode.CachedResult;
+import com.williamsonoma.utility.address.CachingZipCode.RangeKey;
+
+/**
+ * Shares one computation between concurrent identical calls in front of another ZipCode.
+ */
+public class SingleFlightZipCode implements ZipCode
+{
+    private static final Logger logger = LogManager.getLogger(SingleFlightZipCode.class);
+
+    private final ZipCode delegate;
+    private final ConcurrentHashMap<RangeKey, CompletableFuture<CachedResult>> inFlight = new ConcurrentHashMap<RangeKey, CompletableFuture<CachedResult>>();
+
+    private final AtomicLong computed = new AtomicLong();
+    private final AtomicLong shared = new AtomicLong();
+
+    public SingleFlightZipCode(ZipCode delegate)
+    {
+        this.delegate = delegate;
+    }
+
+    public Collection<ZipCodeRange> compactRanges(Collection<ZipCodeRange> ranges) throws IllegalArgumentException
+    {
+        if (ranges == null)
+        {
+            return delegate.compactRanges(ranges);
+        }
+
+        return call(RangeKey.of(ranges), () -> CachedResult.of(delegate.compactRanges(ranges))).ranges;
+    }
+
+    public long[] compactRanges(int[] lowers, int[] uppers) throws IllegalArgumentException
+    {
+        if (lowers == null || uppers == null)
+        {
+            return delegate.compactRanges(lowers, uppers);
+        }
+
+        return call(RangeKey.of(lowers, uppers), () -> CachedResult.of(delegate.compactRanges(lowers, uppers))).packedRanges.clone();
+    }
+
+    /**
+     * ZIP+4 calls pass straight through to the delegate.
+     */
+    public Collection<ZipCodeRange> compactZipPlusFourRanges(Collection<ZipCodeRange> ranges) throws IllegalArgumentException
+    {
+        return delegate.compactZipPlusFourRanges(ranges);
+    }
+
+    public long[] compactZipPlusFourRanges(int[] lowers, int[] uppers) throws IllegalArgumentException
+    {
+        return delegate.compactZipPlusFourRanges(lowers, uppers);
+    }
+
+    /**
+     * @return The number of calls that computed their own result.
+     */
+    public long getComputedCount()
+    {
+        return computed.get();
+    }
+
+    /**
+     * @return The number of calls that waited on another caller's in-flight result.
+     */
+    public long getSharedCount()
+    {
+        return shared.get();
+    }
+
+    public int getInFlightCount()
+    {
+        return inFlight.size();
+    }
+
+    private CachedResult call(RangeKey key, Supplier<CachedResult> compaction)
+    {
+        var future = new CompletableFuture<CachedResult>();
+        var leader = inFlight.putIfAbsent(key, future);
+        if (leader != null)
+        {
+            shared.incrementAndGet();
+            logger.debug("joining in-flight compaction");
+            return await(leader);
+        }
+
+        computed.incrementAndGet();
+        try
+        {
+            future.complete(compaction.get());
+        }
+        catch (RuntimeException | Error e)
+        {
+            // Waiting callers must always be released, whatever the failure
+            future.completeExceptionally(e);
+        }
+        finally
+        {
+            inFlight.remove(key, future);
+        }
+
+        return await(future);
+    }
+
+    // Rethrow the leader's failure as it was thrown, ie: IllegalArgumentException rather than CompletionException
+    private static CachedResult await(CompletableFuture<CachedResult> future)
+    {
+        try
+        {
+            return future.join();
+        }
+        catch (CompletionException e)
+        {
+            if (e.getCause() instanceof RuntimeException)
+            {
+                throw (RuntimeException) e.getCause();
+            }
+
+            if (e.getCause() instanceof Error)
+            {
+                throw (Error) e.getCause();
+            }
+
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.williamsonoma.utility.address;
+
+import java.util.Arrays;
+import com.williamsonoma.api.model.address.PackedZipCodeRange;
+
+/**
+ * Sorted, compacted range bounds shared by the 5 digit and ZIP+4 range sets.
+ */
+abstract class SortedRangeBounds
+{
+    final int[] lowers;
+    final int[] uppers;
+
+    SortedRangeBounds(int[] lowers, int[] uppers)
+    {
+        this.lowers = lowers;
+        this.uppers = uppers;
+    }
+
+    static int[] lowers(long[] packedRanges, int size)
+    {
+        var lowers = new int[size];
+        for (var i = 0; i < size; i++)
+        {
+            lowers[i] = PackedZipCodeRange.lower(packedRanges[i]);
+        }
+
+        return lowers;
+    }
+
+    static int[] uppers(long[] packedRanges, int size)
+    {
+        var uppers = new int[size];
+        for (var i = 0; i < size; i++)
+        {
+            uppers[i] = PackedZipCodeRange.upper(packedRanges[i]);
+        }
+
+        return uppers;
+    }
+
+    public boolean contains(int zip)
+    {
+        var index = Arrays.binarySearch(lowers, zip);
+        if (index >= 0)
+        {
+            return true;
+        }
+
+        // The range that could hold the zip is the one just before the insertion point
+        var candidate = -index - 2;
+        return candidate >= 0 && uppers[candidate] >= zip;
+    }
+
+    public int size()
+    {
+        return lowers.length;
+    }
+
+    public boolean isEmpty()
+    {
+        return lowers.length == 0;
+    }
+
+    public int lower(int index)
+    {
+        return lowers[index];
+    }
+
+    public int upper(int index)
+    {
+        return uppers[index];
+    }
+
+    public long[] toPacked()
+    {
+        var packedRanges = new long[lowers.length];
+        for (var i = 0; i < lowers.length; i++)
+        {
+            packedRanges[i] = PackedZipCodeRange.pack(lowers[i], uppers[i]);
+        }
+
+        return packedRanges;
+    }
+
+    @Override
+    public boolean equals(Object obj)
+    {
+        if (obj != null && obj.getClass() == getClass())
+        {
+            var rangeSet = (SortedRangeBounds) obj;
+            return Arrays.equals(lowers, rangeSet.lowers) && Arrays.equals(uppers, rangeSet.uppers);
+        }
+
+        return false;
+    }
+
+    @Override
+    public int hashCode()
+    {
+        return 31 * Arrays.hashCode(lowers) + Arrays.hashCode(uppers);
+    }
+}
@@ -0,0 +1,190 @@
+package com.williamsonoma.utility.address;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.stream.IntStream;
+import org.apache.logging.log4j.Logger;
+import org.apache.logging.log4j.LogManager;
+
+/**
+ * Classifies batches of zip codes against a compacted range set into a bitmap, one bit per zip code.
+ */
+public final class ZipCodeClassifier
+{
+    private static final Logger logger = LogManager.getLogger(ZipCodeClassifier.class);
+
+    public static final int DEFAULT_PARALLEL_THRESHOLD = 1 << 18;
+
+    private static final int SLICE_SIZE = 1 << 16;
+
+    private final ZipCodeRangeSet rangeSet;
+    private final long[] universe = new long[(ZipCodes.UNIVERSE + Long.SIZE - 1) / Long.SIZE];
+    private final ForkJoinPool pool;
+    private final int parallelThreshold;
+
+    public ZipCodeClassifier(ZipCodeRangeSet rangeSet)
+    {
+        this(rangeSet, ForkJoinPool.commonPool(), DEFAULT_PARALLEL_THRESHOLD);
+    }
+
+    /**
+     * @param pool Runs the slices of batches of at least parallelThreshold zip codes.
+     */
+    public ZipCodeClassifier(ZipCodeRangeSet rangeSet, ForkJoinPool pool, int parallelThreshold)
+    {
+        this.rangeSet = rangeSet;
+        this.pool = pool;
+        this.parallelThreshold = parallelThreshold;
+
+        for (var i = 0; i < rangeSet.size(); i++)
+        {
+            for (var zip = rangeSet.lower(i); zip <= rangeSet.upper(i); zip++)
+            {
+                universe[zip >>> 6] |= 1L << zip;
+            }
+        }
+    }
+
+    /**
+     * @return Bit i, ie: flags[i / 64] & (1L << i), is set when zips[i] is in the range set. See isSet.
+     */
+    public long[] classify(int[] zips) throws IllegalArgumentException
+    {
+        var flags = new long[(zips.length + Long.SIZE - 1) / Long.SIZE];
+        logger.debug("classify called with {} zip codes", zips.length);
+
+        try
+        {
+            if (zips.length >= parallelThreshold)
+            {
+                pool.invoke(new ClassifyTask(zips, flags, 0, zips.length));
+            }
+            else
+            {
+                classifySlice(zips, flags, 0, zips.length);
+            }
+        }
+        catch (IllegalArgumentException e)
+        {
+            checkZips(zips);
+            throw e;
+        }
+
+        return flags;
+    }
+
+    public long[] classify(IntStream zips) throws IllegalArgumentException
+    {
+        return classify(zips.toArray());
+    }
+
+    public static boolean isSet(long[] flags, int index)
+    {
+        return (flags[index >>> 6] & (1L << index)) != 0;
+    }
+
+    // Merge-join while the zip codes keep ascending, and switch to probing the universe bitmap at the first one that does not.
+    private void classifySlice(int[] zips, long[] flags, int from, int to)
+    {
+        var size = rangeSet.size();
+        var range = from < to ? firstRangeNotBelow(zips[from]) : 0;
+        var previous = ZipCodes.MIN_ZIP;
+        var i = from;
+
+        for (; i < to; i++)
+        {
+            var zip = zips[i];
+            if (zip < previous)
+            {
+                break;
+            }
+
+            checkZip(zip, i);
+            while (range < size && rangeSet.upper(range) < zip)
+            {
+                range++;
+            }
+
+            if (range < size && rangeSet.lower(range) <= zip)
+            {
+                flags[i >>> 6] |= 1L << i;
+            }
+
+            previous = zip;
+        }
+
+        for (; i < to; i++)
+        {
+            var zip = zips[i];
+            checkZip(zip, i);
+            flags[i >>> 6] |= ((universe[zip >>> 6] >>> zip) & 1L) << i;
+        }
+    }
+
+    // Binary search for the first range whose upper bound is not below the zip, so a slice joins from where its zip codes start.
+    private int firstRangeNotBelow(int zip)
+    {
+        var low = 0;
+        var high = rangeSet.size();
+        while (low < high)
+        {
+            var middle = (low + high) >>> 1;
+            if (rangeSet.upper(middle) < zip)
+            {
+                low = middle + 1;
+            }
+            else
+            {
+                high = middle;
+            }
+        }
+
+        return low;
+    }
+
+    private static void checkZips(int[] zips) throws IllegalArgumentException
+    {
+        for (var i = 0; i < zips.length; i++)
+        {
+            checkZip(zips[i], i);
+        }
+    }
+
+    private static void checkZip(int zip, int index) throws IllegalArgumentException
+    {
+        if (zip < ZipCodes.MIN_ZIP || zip > ZipCodes.MAX_ZIP)
+        {
+            throw new IllegalArgumentException("Zip code values must be between 00000 and 99999, invalid zip code at index " + index + ".");
+        }
+    }
+
+    private class ClassifyTask extends RecursiveAction
+    {
+        private final int[] zips;
+        private final long[] flags;
+        private final int from;
+        private final int to;
+
+        ClassifyTask(int[] zips, long[] flags, int from, int to)
+        {
+            this.zips = zips;
+            this.flags = flags;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute()
+        {
+            if (to - from <= SLICE_SIZE)
+            {
+                classifySlice(zips, flags, from, to);
+                return;
+            }
+
+            // Split on a multiple of 64 so the two halves never write to the same word of flags
+            var middle = ((from + to) >>> 1) & -Long.SIZE;
+            invokeAll(new ClassifyTask(zips, flags, from, middle), new ClassifyTask(zips, flags, middle, to));
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.williamsonoma.utility.address;
+
+import java.util.stream.LongStream;
+import com.williamsonoma.api.model.address.PackedZipCodeRange;
+
+/**
+ * Difference array over the fixed 00000-99999 universe.
+ */
+final class ZipCodeCoverage
+{
+    private final int[] deltas = new int[ZipCodes.UNIVERSE + 1];
+
+    void add(int lower, int upper)
+    {
+        deltas[lower]++;
+        deltas[upper + 1]--;
+    }
+
+    void sweep(IntRangeConsumer consumer)
+    {
+        var depth = 0;
+        var lower = -1;
+        for (var zip = ZipCodes.MIN_ZIP; zip < ZipCodes.UNIVERSE; zip++)
+        {
+            depth += deltas[zip];
+            if (depth > 0 && lower < 0)
+            {
+                lower = zip;
+            }
+            else if (depth == 0 && lower > -1)
+            {
+                consumer.accept(lower, zip - 1);
+                lower = -1;
+            }
+        }
+
+        if (lower > -1)
+        {
+            consumer.accept(lower, ZipCodes.MAX_ZIP);
+        }
+    }
+
+    long[] toPacked()
+    {
+        var compactedRanges = LongStream.builder();
+        sweep((lower, upper) -> compactedRanges.add(PackedZipCodeRange.pack(lower, upper)));
+
+        return compactedRanges.build().toArray();
+    }
+
+    ZipCodeRangeSet toRangeSet()
+    {
+        var compactedRanges = toPacked();
+        return ZipCodeRangeSet.fromCompacted(compactedRanges, compactedRanges.length);
+    }
+}
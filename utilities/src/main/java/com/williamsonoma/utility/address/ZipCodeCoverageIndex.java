@@ -0,0 +1,147 @@
+package com.williamsonoma.utility.address;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import com.williamsonoma.api.model.address.PackedZipCodeRange;
+import com.williamsonoma.api.model.address.ZipCodeRange;
+
+/**
+ * Constant time coverage counts and largest gaps for a compacted range set.
+ */
+public final class ZipCodeCoverageIndex
+{
+    private static final int PREFIX_LENGTH = 3;
+    private static final int PREFIX_SIZE = 100;
+    private static final int LOWER_BITS = 17;
+
+    // covered[zip] is the number of covered zip codes below zip, so covered[UNIVERSE] is the total
+    private final int[] covered;
+    private final long[] gaps;
+
+    private ZipCodeCoverageIndex(int[] covered, long[] gaps)
+    {
+        this.covered = covered;
+        this.gaps = gaps;
+    }
+
+    public static ZipCodeCoverageIndex of(ZipCodeRangeSet rangeSet)
+    {
+        var covered = new int[ZipCodes.UNIVERSE + 1];
+        var total = 0;
+        var zip = ZipCodes.MIN_ZIP;
+        for (var i = 0; i < rangeSet.size(); i++)
+        {
+            var lower = rangeSet.lower(i);
+            var upper = rangeSet.upper(i);
+            for (; zip <= lower; zip++)
+            {
+                covered[zip] = total;
+            }
+
+            for (; zip <= upper + 1; zip++)
+            {
+                covered[zip] = ++total;
+            }
+        }
+
+        for (; zip <= ZipCodes.UNIVERSE; zip++)
+        {
+            covered[zip] = total;
+        }
+
+        // Order the gaps longest first, then by lower bound, with one sort of primitive keys
+        var complement = rangeSet.complement();
+        var keys = new long[complement.size()];
+        for (var i = 0; i < keys.length; i++)
+        {
+            var length = complement.upper(i) - complement.lower(i) + 1;
+            keys[i] = (long) (ZipCodes.UNIVERSE - length) << LOWER_BITS | complement.lower(i);
+        }
+
+        Arrays.sort(keys);
+
+        var gaps = new long[keys.length];
+        for (var i = 0; i < keys.length; i++)
+        {
+            var lower = (int) (keys[i] & ((1 << LOWER_BITS) - 1));
+            var length = ZipCodes.UNIVERSE - (int) (keys[i] >>> LOWER_BITS);
+            gaps[i] = PackedZipCodeRange.pack(lower, lower + length - 1);
+        }
+
+        return new ZipCodeCoverageIndex(covered, gaps);
+    }
+
+    /**
+     * @return How many zip codes between lower and upper, inclusive, are covered.
+     */
+    public int count(int lower, int upper) throws IllegalArgumentException
+    {
+        ZipCodes.checkRange(lower, upper);
+        return covered[upper + 1] - covered[lower];
+    }
+
+    public int count(ZipCodeRange range) throws IllegalArgumentException
+    {
+        var packedRange = ZipCodes.parseRange(range);
+        return count(PackedZipCodeRange.lower(packedRange), PackedZipCodeRange.upper(packedRange));
+    }
+
+    /**
+     * @return How many zip codes are covered in all.
+     */
+    public int getTotal()
+    {
+        return covered[ZipCodes.UNIVERSE];
+    }
+
+    /**
+     * @param prefix A 3 digit zip code prefix, 0 to 999.
+     * @return The fraction of the 100 zip codes starting with the prefix that are covered.
+     */
+    public double fraction(int prefix) throws IllegalArgumentException
+    {
+        if (prefix < 0 || prefix * PREFIX_SIZE > ZipCodes.MAX_ZIP)
+        {
+            throw new IllegalArgumentException("Zip code prefixes must be 3 digits.");
+        }
+
+        return count(prefix * PREFIX_SIZE, prefix * PREFIX_SIZE + PREFIX_SIZE - 1) / (double) PREFIX_SIZE;
+    }
+
+    public double fraction(String prefix) throws IllegalArgumentException
+    {
+        if (prefix.length() != PREFIX_LENGTH)
+        {
+            throw new IllegalArgumentException("Zip code prefixes must be 3 digits.");
+        }
+
+        // Parse as the lowest zip code with the prefix to share the digit checks
+        return fraction(ZipCodes.parse(prefix + "00") / PREFIX_SIZE);
+    }
+
+    public int getGapCount()
+    {
+        return gaps.length;
+    }
+
+    /**
+     * @return Up to k of the longest runs of uncovered zip codes, longest first and ties in zip code order.
+     */
+    public Collection<ZipCodeRange> topGaps(int k) throws IllegalArgumentException
+    {
+        if (k < 0)
+        {
+            throw new IllegalArgumentException("Number of gaps cannot be negative.");
+        }
+
+        var count = Math.min(k, gaps.length);
+        var ranges = new ArrayList<ZipCodeRange>(count);
+        for (var i = 0; i < count; i++)
+        {
+            ranges.add(ZipCodes.toRange(gaps[i]));
+        }
+
+        return ranges;
+    }
+}
@@ -0,0 +1,114 @@
+package com.williamsonoma.utility.address;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import com.williamsonoma.api.model.address.PackedZipCodeRange;
+import com.williamsonoma.api.model.address.ZipCodeRange;
+
+/**
+ * Splits zip code ranges into shards by zip code prefix, clipping ranges that cross a shard boundary.
+ */
+public final class ZipCodePartitioner
+{
+    private final int prefixWidth;
+    private final int prefixes;
+
+    private ZipCodePartitioner(int prefixDigits)
+    {
+        var width = 1;
+        for (var i = prefixDigits; i < 5; i++)
+        {
+            width *= 10;
+        }
+
+        this.prefixWidth = width;
+        this.prefixes = ZipCodes.UNIVERSE / width;
+    }
+
+    /**
+     * Partition by the first digit, the national area, into at most 10 prefixes.
+     */
+    public static ZipCodePartitioner byNationalArea()
+    {
+        return new ZipCodePartitioner(1);
+    }
+
+    /**
+     * Partition by the first three digits, the sectional center facility, into at most 1000 prefixes.
+     */
+    public static ZipCodePartitioner bySectionalCenter()
+    {
+        return new ZipCodePartitioner(3);
+    }
+
+    public int getPrefixCount()
+    {
+        return prefixes;
+    }
+
+    /**
+     * @return The shard that holds a zip code when the prefixes are split into the given number of shards.
+     */
+    public int shardOf(int zip, int shards)
+    {
+        return (int) ((long) (zip / prefixWidth) * shards / prefixes);
+    }
+
+    /**
+     * One shard per prefix.
+     */
+    public List<List<ZipCodeRange>> partition(Collection<ZipCodeRange> ranges) throws IllegalArgumentException
+    {
+        return partition(ranges, prefixes);
+    }
+
+    /**
+     * @param shards The number of shards, each a contiguous block of prefixes. At most the prefix count.
+     * @return The clipped ranges of each shard, in shard order.
+     */
+    public List<List<ZipCodeRange>> partition(Collection<ZipCodeRange> ranges, int shards) throws IllegalArgumentException
+    {
+        if (shards < 1 || shards > prefixes)
+        {
+            throw new IllegalArgumentException("Shard count must be between 1 and " + prefixes + ".");
+        }
+
+        var partitions = new ArrayList<List<ZipCodeRange>>(shards);
+        for (var shard = 0; shard < shards; shard++)
+        {
+            partitions.add(new ArrayList<ZipCodeRange>());
+        }
+
+        for (var range : ranges)
+        {
+            var packedRange = ZipCodes.parseRange(range);
+            var lower = PackedZipCodeRange.lower(packedRange);
+            var upper = PackedZipCodeRange.upper(packedRange);
+
+            var first = shardOf(lower, shards);
+            var last = shardOf(upper, shards);
+            if (first == last)
+            {
+                partitions.get(first).add(range);
+                continue;
+            }
+
+            for (var shard = first; shard <= last; shard++)
+            {
+                var pieceLower = Math.max(lower, shardStart(shard, shards));
+                var pieceUpper = Math.min(upper, shardStart(shard + 1, shards) - 1);
+                partitions.get(shard).add(new ZipCodeRange(ZipCodes.format(pieceLower), ZipCodes.format(pieceUpper)));
+            }
+        }
+
+        return partitions;
+    }
+
+    // The first zip code of a shard, the first prefix whose shard is not below it.
+    private int shardStart(int shard, int shards)
+    {
+        var prefix = (int) (((long) shard * prefixes + shards - 1) / shards);
+        return prefix * prefixWidth;
+    }
+}
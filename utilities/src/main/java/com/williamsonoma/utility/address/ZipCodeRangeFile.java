@@ -0,0 +1,115 @@
+package com.williamsonoma.utility.address;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Binary file of compacted ranges: a 16 byte header, then little-endian lower and upper int pairs.
+ */
+public final class ZipCodeRangeFile
+{
+    static final int MAGIC = 0x5A435253;
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 16;
+    static final int RANGE_SIZE = 8;
+    static final ByteOrder ORDER = ByteOrder.LITTLE_ENDIAN;
+
+    private ZipCodeRangeFile()
+    {
+    }
+
+    /**
+     * Write a compacted range set. The file is written next to its destination and moved into place,
+     * so a reader mapping the destination never sees a partial file. Windows will not replace a file
+     * that is still mapped, so close the sets mapped from the destination before rewriting it there.
+     */
+    public static void write(Path path, ZipCodeRangeSet ranges) throws IOException
+    {
+        var buffer = ByteBuffer.allocate(HEADER_SIZE + ranges.size() * RANGE_SIZE).order(ORDER);
+        buffer.putInt(MAGIC).putInt(VERSION).putInt(ranges.size()).putInt(0);
+        for (var i = 0; i < ranges.size(); i++)
+        {
+            buffer.putInt(ranges.lower(i)).putInt(ranges.upper(i));
+        }
+
+        buffer.flip();
+
+        var directory = path.toAbsolutePath().getParent();
+        var temporary = Files.createTempFile(directory, path.getFileName().toString(), ".tmp");
+        try
+        {
+            try (var channel = FileChannel.open(temporary, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING))
+            {
+                while (buffer.hasRemaining())
+                {
+                    channel.write(buffer);
+                }
+
+                channel.force(true);
+            }
+
+            Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }
+        finally
+        {
+            Files.deleteIfExists(temporary);
+        }
+    }
+
+    /**
+     * Map a range file read-only and check its ranges. Lookups and iteration read the mapped file
+     * directly, until the returned set is closed.
+     */
+    public static MappedZipCodeRangeSet map(Path path) throws IOException
+    {
+        try (var channel = FileChannel.open(path, StandardOpenOption.READ))
+        {
+            var size = channel.size();
+            if (size < HEADER_SIZE)
+            {
+                throw new IOException("Not a zip code range file: " + path);
+            }
+
+            var buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size).order(ORDER);
+            if (buffer.getInt(0) != MAGIC)
+            {
+                throw new IOException("Not a zip code range file: " + path);
+            }
+
+            if (buffer.getInt(4) != VERSION)
+            {
+                throw new IOException("Unsupported zip code range file version " + buffer.getInt(4) + ": " + path);
+            }
+
+            var count = buffer.getInt(8);
+            if (count < 0 || size != HEADER_SIZE + (long) count * RANGE_SIZE)
+            {
+                throw new IOException("Truncated zip code range file: " + path);
+            }
+
+            var bounds = buffer.position(HEADER_SIZE).slice().order(ORDER).asIntBuffer();
+            var ranges = new MappedZipCodeRangeSet(buffer, bounds, count);
+            var previousUpper = ZipCodes.MIN_ZIP - 2;
+            for (var i = 0; i < count; i++)
+            {
+                var lower = bounds.get(2 * i);
+                var upper = bounds.get(2 * i + 1);
+                if (lower <= previousUpper + 1 || lower > upper || upper > ZipCodes.MAX_ZIP)
+                {
+                    ranges.close();
+                    throw new IOException("Corrupt zip code range file, range " + i + " is not a compacted range between 00000 and 99999: " + path);
+                }
+
+                previousUpper = upper;
+            }
+
+            return ranges;
+        }
+    }
+}
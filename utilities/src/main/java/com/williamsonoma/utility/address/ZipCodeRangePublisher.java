@@ -0,0 +1,97 @@
+package com.williamsonoma.utility.address;
+
+import java.util.Collection;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.SubmissionPublisher;
+import org.apache.logging.log4j.Logger;
+import org.apache.logging.log4j.LogManager;
+import com.williamsonoma.api.model.address.PackedZipCodeRange;
+import com.williamsonoma.api.model.address.ZipCodeRange;
+
+/**
+ * Publishes compacted ranges as the sweep closes each one, with one compaction run per subscriber.
+ */
+public class ZipCodeRangePublisher implements Flow.Publisher<ZipCodeRange>
+{
+    private static final Logger logger = LogManager.getLogger(ZipCodeRangePublisher.class);
+
+    private final Collection<ZipCodeRange> ranges;
+    private final Executor producer;
+    private final Executor delivery;
+    private final int bufferSize;
+
+    public ZipCodeRangePublisher(Collection<ZipCodeRange> ranges, ForkJoinPool pool)
+    {
+        this(ranges, pool, Flow.defaultBufferSize());
+    }
+
+    /**
+     * @param pool Runs both the compaction and delivery. A producer blocked on a full buffer is compensated for by the
+     * pool, so delivery still gets a thread.
+     */
+    public ZipCodeRangePublisher(Collection<ZipCodeRange> ranges, ForkJoinPool pool, int bufferSize)
+    {
+        this(ranges, pool, pool, bufferSize);
+    }
+
+    /**
+     * @param ranges The zip code ranges to compact for each subscriber.
+     * @param producer Runs the compaction, which blocks while the buffer is full.
+     * @param delivery Delivers ranges to subscribers, draining the buffer. Must not be the producer unless it is a ForkJoinPool.
+     * @param bufferSize The most ranges published ahead of what a subscriber has consumed.
+     */
+    public ZipCodeRangePublisher(Collection<ZipCodeRange> ranges, Executor producer, Executor delivery, int bufferSize) throws IllegalArgumentException
+    {
+        if (producer == delivery && !(producer instanceof ForkJoinPool))
+        {
+            throw new IllegalArgumentException("Compaction and delivery need separate executors, a blocked producer would starve delivery.");
+        }
+
+        this.ranges = ranges;
+        this.producer = producer;
+        this.delivery = delivery;
+        this.bufferSize = bufferSize;
+    }
+
+    @Override
+    public void subscribe(Flow.Subscriber<? super ZipCodeRange> subscriber)
+    {
+        var publisher = new SubmissionPublisher<ZipCodeRange>(delivery, bufferSize);
+        publisher.subscribe(subscriber);
+        producer.execute(() -> publish(publisher));
+    }
+
+    private void publish(SubmissionPublisher<ZipCodeRange> publisher)
+    {
+        try
+        {
+            var coverage = new ZipCodeCoverage();
+            if (ranges != null)
+            {
+                for (var range : ranges)
+                {
+                    var packedRange = ZipCodes.parseRange(range);
+                    coverage.add(PackedZipCodeRange.lower(packedRange), PackedZipCodeRange.upper(packedRange));
+                }
+            }
+
+            coverage.sweep((lower, upper) ->
+                {
+                    // Nobody left to publish to once the subscriber cancels, so let the sweep run out
+                    if (publisher.hasSubscribers())
+                    {
+                        publisher.submit(new ZipCodeRange(ZipCodes.format(lower), ZipCodes.format(upper)));
+                    }
+                });
+
+            publisher.close();
+        }
+        catch (RuntimeException e)
+        {
+            logger.debug("compaction failed, closing publisher exceptionally", e);
+            publisher.closeExceptionally(e);
+        }
+    }
+}
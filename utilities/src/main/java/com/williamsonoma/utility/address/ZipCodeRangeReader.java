@@ -0,0 +1,137 @@
+package com.williamsonoma.utility.address;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Streams zip code ranges out of a file or channel and compacts them as they are read.
+ * Each line holds a lower and an upper zip, either as ten consecutive digits or separated by a comma, pipe, tab or spaces.
+ * Blank lines and carriage returns are ignored.
+ */
+public final class ZipCodeRangeReader
+{
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final int ZIP_LENGTH = 5;
+
+    private ZipCodeRangeReader()
+    {
+    }
+
+    public static ZipCodeRangeSet compact(Path path) throws IOException, IllegalArgumentException
+    {
+        try (var channel = FileChannel.open(path, StandardOpenOption.READ))
+        {
+            return compact(channel);
+        }
+    }
+
+    public static ZipCodeRangeSet compact(ReadableByteChannel channel) throws IOException, IllegalArgumentException
+    {
+        var coverage = new ZipCodeCoverage();
+        read(channel, coverage::add);
+
+        return coverage.toRangeSet();
+    }
+
+    /**
+     * Parse every range in the channel and hand it to the consumer in file order. Ranges are validated
+     * before they are passed on, and a bad line fails with its line number.
+     */
+    static void read(ReadableByteChannel channel, IntRangeConsumer consumer) throws IOException, IllegalArgumentException
+    {
+        var buffer = ByteBuffer.allocate(BUFFER_SIZE);
+        var bytes = buffer.array();
+
+        var line = 1L;
+        var lower = -1;
+        var value = 0;
+        var digits = 0;
+
+        while (channel.read(buffer) >= 0)
+        {
+            var limit = buffer.position();
+            for (var i = 0; i < limit; i++)
+            {
+                var b = bytes[i];
+                if (b >= '0' && b <= '9')
+                {
+                    if (digits == ZIP_LENGTH)
+                    {
+                        // Ten digits in a row is the fixed width layout, anything longer is an error
+                        if (lower > -1)
+                        {
+                            throw invalidLine(line);
+                        }
+
+                        lower = value;
+                        value = 0;
+                        digits = 0;
+                    }
+
+                    value = value * 10 + (b - '0');
+                    digits++;
+                }
+                else if (b == '\n')
+                {
+                    if (lower > -1 || digits > 0)
+                    {
+                        emit(lower, value, digits, line, consumer);
+                    }
+
+                    line++;
+                    lower = -1;
+                    value = 0;
+                    digits = 0;
+                }
+                else if (b == ',' || b == '|' || b == '\t' || b == ' ')
+                {
+                    if (lower < 0 && digits == ZIP_LENGTH)
+                    {
+                        lower = value;
+                        value = 0;
+                        digits = 0;
+                    }
+                    else if (digits != 0 && digits != ZIP_LENGTH)
+                    {
+                        throw invalidLine(line);
+                    }
+                }
+                else if (b != '\r')
+                {
+                    throw invalidLine(line);
+                }
+            }
+
+            buffer.clear();
+        }
+
+        if (lower > -1 || digits > 0)
+        {
+            emit(lower, value, digits, line, consumer);
+        }
+    }
+
+    private static void emit(int lower, int upper, int digits, long line, IntRangeConsumer consumer) throws IllegalArgumentException
+    {
+        if (lower < 0 || digits != ZIP_LENGTH)
+        {
+            throw invalidLine(line);
+        }
+
+        if (lower > upper)
+        {
+            throw new IllegalArgumentException("Zip code range lower bound cannot be greater than upper bound. Line " + line);
+        }
+
+        consumer.accept(lower, upper);
+    }
+
+    private static IllegalArgumentException invalidLine(long line)
+    {
+        return new IllegalArgumentException("Zip code values must be 5 digits. Line " + line);
+    }
+}
@@ -0,0 +1,227 @@
+package com.williamsonoma.utility.address;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import org.apache.logging.log4j.Logger;
+import org.apache.logging.log4j.LogManager;
+import com.williamsonoma.api.model.address.PackedZipCodeRange;
+import com.williamsonoma.api.model.address.ZipCodeRange;
+import com.williamsonoma.api.utility.address.ZipCode;
+
+/**
+ * Named, versioned compacted range sets, replaced atomically while readers keep reading.
+ */
+public class ZipCodeRangeRegistry
+{
+    private static final Logger logger = LogManager.getLogger(ZipCodeRangeRegistry.class);
+
+    private final ZipCode zipCode;
+
+    // Names are never dropped from the map, remove() leaves a version without a range set so numbering carries on
+    private final ConcurrentHashMap<String, AtomicReference<Version>> sets = new ConcurrentHashMap<String, AtomicReference<Version>>();
+
+    private final LongAdder publishes = new LongAdder();
+    private final LongAdder publishNanos = new LongAdder();
+    private final LongAccumulator maxPublishNanos = new LongAccumulator(Math::max, 0);
+
+    /**
+     * @param zipCode Compacts the raw ranges passed to publish.
+     */
+    public ZipCodeRangeRegistry(ZipCode zipCode)
+    {
+        this.zipCode = zipCode;
+    }
+
+    /**
+     * @return The current version of a set, or null when nothing has been published under the name.
+     */
+    public Version get(String name)
+    {
+        var current = sets.get(name);
+        var version = current == null ? null : current.get();
+        return version == null || version.isRemoved() ? null : version;
+    }
+
+    /**
+     * @return Whether the current version of a set holds the zip code, false when the set does not exist.
+     */
+    public boolean contains(String name, int zip)
+    {
+        var version = get(name);
+        return version != null && version.rangeSet.contains(zip);
+    }
+
+    /**
+     * @return A read-only snapshot of the names with a published set.
+     */
+    public Set<String> names()
+    {
+        var names = new HashSet<String>();
+        for (var name : sets.keySet())
+        {
+            if (get(name) != null)
+            {
+                names.add(name);
+            }
+        }
+
+        return Collections.unmodifiableSet(names);
+    }
+
+    /**
+     * Compact raw ranges and publish them as the next version of a set.
+     *
+     * @return The version published.
+     */
+    public Version publish(String name, Collection<ZipCodeRange> ranges) throws IllegalArgumentException
+    {
+        var start = System.nanoTime();
+        var size = ranges == null ? 0 : ranges.size();
+        var lowers = new int[size];
+        var uppers = new int[size];
+        if (ranges != null)
+        {
+            var i = 0;
+            for (var range : ranges)
+            {
+                var packedRange = ZipCodes.parseRange(range);
+                lowers[i] = PackedZipCodeRange.lower(packedRange);
+                uppers[i++] = PackedZipCodeRange.upper(packedRange);
+            }
+        }
+
+        var rangeSet = ZipCodeRangeSet.of(zipCode.compactRanges(lowers, uppers));
+        return swap(name, rangeSet, start);
+    }
+
+    /**
+     * Publish an already built range set as the next version of a set.
+     *
+     * @return The version published.
+     */
+    public Version publish(String name, ZipCodeRangeSet rangeSet)
+    {
+        return swap(name, rangeSet, System.nanoTime());
+    }
+
+    /**
+     * @return The last version of the set, or null when it did not exist.
+     */
+    public Version remove(String name)
+    {
+        var current = sets.get(name);
+        if (current == null)
+        {
+            return null;
+        }
+
+        while (true)
+        {
+            var previous = current.get();
+            if (previous == null || previous.isRemoved())
+            {
+                return null;
+            }
+
+            if (current.compareAndSet(previous, new Version(name, previous.number, null, System.currentTimeMillis())))
+            {
+                return previous;
+            }
+        }
+    }
+
+    public long getPublishCount()
+    {
+        return publishes.sum();
+    }
+
+    /**
+     * @return Total time from the start of each publish, compaction included, until its version was visible to readers.
+     */
+    public long getPublishNanos()
+    {
+        return publishNanos.sum();
+    }
+
+    public long getMaxPublishNanos()
+    {
+        return maxPublishNanos.get();
+    }
+
+    private Version swap(String name, ZipCodeRangeSet rangeSet, long start)
+    {
+        // Concurrent writers to one name retry so every version number is used exactly once
+        var current = sets.computeIfAbsent(name, key -> new AtomicReference<Version>());
+        Version published;
+        while (true)
+        {
+            var previous = current.get();
+            published = new Version(name, previous == null ? 1 : previous.number + 1, rangeSet, System.currentTimeMillis());
+            if (current.compareAndSet(previous, published))
+            {
+                break;
+            }
+        }
+
+        var elapsed = System.nanoTime() - start;
+        publishes.increment();
+        publishNanos.add(elapsed);
+        maxPublishNanos.accumulate(elapsed);
+        logger.debug("published {} version {} with {} ranges in {} ns", name, published.number, rangeSet.size(), elapsed);
+
+        return published;
+    }
+
+    /**
+     * One immutable version of a named set.
+     */
+    public static final class Version
+    {
+        private final String name;
+        private final long number;
+        private final ZipCodeRangeSet rangeSet;
+        private final long publishedMillis;
+
+        private Version(String name, long number, ZipCodeRangeSet rangeSet, long publishedMillis)
+        {
+            this.name = name;
+            this.number = number;
+            this.rangeSet = rangeSet;
+            this.publishedMillis = publishedMillis;
+        }
+
+        public String getName()
+        {
+            return name;
+        }
+
+        /**
+         * @return The version number, starting at 1 and increasing by 1 with every publish of the name, across remove().
+         */
+        public long getNumber()
+        {
+            return number;
+        }
+
+        public ZipCodeRangeSet getRangeSet()
+        {
+            return rangeSet;
+        }
+
+        public long getPublishedMillis()
+        {
+            return publishedMillis;
+        }
+
+        private boolean isRemoved()
+        {
+            return rangeSet == null;
+        }
+    }
+}
@@ -0,0 +1,250 @@
+package com.williamsonoma.utility.address;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import com.williamsonoma.api.model.address.PackedZipCodeRange;
+import com.williamsonoma.api.model.address.ZipCodeRange;
+
+/**
+ * Immutable compacted zip code ranges held as sorted primitive bounds.
+ */
+public final class ZipCodeRangeSet extends SortedRangeBounds
+{
+    public static final ZipCodeRangeSet EMPTY = new ZipCodeRangeSet(new int[0], new int[0]);
+
+    private ZipCodeRangeSet(int[] lowers, int[] uppers)
+    {
+        super(lowers, uppers);
+    }
+
+    /**
+     * Build a range set from zip code ranges, normally the output of compactRanges. Ranges that are
+     * out of order, overlapping or adjacent are compacted on the way in.
+     */
+    public static ZipCodeRangeSet of(Collection<ZipCodeRange> ranges) throws IllegalArgumentException
+    {
+        var packedRanges = new long[ranges.size()];
+        var size = 0;
+        for (var range : ranges)
+        {
+            packedRanges[size++] = ZipCodes.parseRange(range);
+        }
+
+        return fromUnsorted(packedRanges);
+    }
+
+    /**
+     * Build a range set from packed ranges, normally the output of the primitive compactRanges.
+     */
+    public static ZipCodeRangeSet of(long[] packedRanges) throws IllegalArgumentException
+    {
+        var copy = packedRanges.clone();
+        for (var range : copy)
+        {
+            ZipCodes.checkRange(PackedZipCodeRange.lower(range), PackedZipCodeRange.upper(range));
+        }
+
+        return fromUnsorted(copy);
+    }
+
+    // Takes ownership of an array of already validated packed ranges.
+    static ZipCodeRangeSet fromUnsorted(long[] packedRanges)
+    {
+        for (var i = 1; i < packedRanges.length; i++)
+        {
+            if (packedRanges[i - 1] > packedRanges[i])
+            {
+                Arrays.sort(packedRanges);
+                break;
+            }
+        }
+
+        return fromCompacted(packedRanges, PackedRanges.coalesce(packedRanges, packedRanges.length));
+    }
+
+    // Takes a sorted array of compacted packed ranges.
+    static ZipCodeRangeSet fromCompacted(long[] packedRanges, int size)
+    {
+        if (size == 0)
+        {
+            return EMPTY;
+        }
+
+        return new ZipCodeRangeSet(lowers(packedRanges, size), uppers(packedRanges, size));
+    }
+
+    public boolean contains(String zip) throws IllegalArgumentException
+    {
+        return contains(ZipCodes.parse(zip));
+    }
+
+    /**
+     * Zip codes in either set, in one merge over both.
+     */
+    public ZipCodeRangeSet union(ZipCodeRangeSet other)
+    {
+        var builder = new Builder(lowers.length + other.lowers.length);
+        var i = 0;
+        var j = 0;
+        while (i < lowers.length || j < other.lowers.length)
+        {
+            if (j == other.lowers.length || (i < lowers.length && lowers[i] <= other.lowers[j]))
+            {
+                builder.append(lowers[i], uppers[i]);
+                i++;
+            }
+            else
+            {
+                builder.append(other.lowers[j], other.uppers[j]);
+                j++;
+            }
+        }
+
+        return builder.build();
+    }
+
+    /**
+     * Zip codes in both sets, in one merge over both.
+     */
+    public ZipCodeRangeSet intersection(ZipCodeRangeSet other)
+    {
+        var builder = new Builder(lowers.length + other.lowers.length);
+        var i = 0;
+        var j = 0;
+        while (i < lowers.length && j < other.lowers.length)
+        {
+            var lower = Math.max(lowers[i], other.lowers[j]);
+            var upper = Math.min(uppers[i], other.uppers[j]);
+            if (lower <= upper)
+            {
+                builder.append(lower, upper);
+            }
+
+            // Move past whichever range ends first, the other may still overlap the next one
+            if (uppers[i] < other.uppers[j])
+            {
+                i++;
+            }
+            else
+            {
+                j++;
+            }
+        }
+
+        return builder.build();
+    }
+
+    /**
+     * Zip codes in this set but not in the other, ie: restricted for carrier A but not for carrier B.
+     */
+    public ZipCodeRangeSet difference(ZipCodeRangeSet other)
+    {
+        var builder = new Builder(lowers.length + other.lowers.length);
+        var j = 0;
+        for (var i = 0; i < lowers.length; i++)
+        {
+            var lower = lowers[i];
+            var upper = uppers[i];
+
+            // Skip ranges of the other set that end before this range starts
+            while (j < other.lowers.length && other.uppers[j] < lower)
+            {
+                j++;
+            }
+
+            // Cut out every range of the other set that overlaps this one
+            var k = j;
+            while (k < other.lowers.length && other.lowers[k] <= upper)
+            {
+                if (other.lowers[k] > lower)
+                {
+                    builder.append(lower, other.lowers[k] - 1);
+                }
+
+                lower = other.uppers[k] + 1;
+                k++;
+            }
+
+            if (lower <= upper)
+            {
+                builder.append(lower, upper);
+            }
+        }
+
+        return builder.build();
+    }
+
+    /**
+     * Zip codes between 00000 and 99999 that are not in this set.
+     */
+    public ZipCodeRangeSet complement()
+    {
+        var builder = new Builder(lowers.length + 1);
+        var lower = ZipCodes.MIN_ZIP;
+        for (var i = 0; i < lowers.length; i++)
+        {
+            if (lowers[i] > lower)
+            {
+                builder.append(lower, lowers[i] - 1);
+            }
+
+            lower = uppers[i] + 1;
+        }
+
+        if (lower <= ZipCodes.MAX_ZIP)
+        {
+            builder.append(lower, ZipCodes.MAX_ZIP);
+        }
+
+        return builder.build();
+    }
+
+    public Collection<ZipCodeRange> toRanges()
+    {
+        var ranges = new ArrayList<ZipCodeRange>(lowers.length);
+        for (var i = 0; i < lowers.length; i++)
+        {
+            ranges.add(new ZipCodeRange(ZipCodes.format(lowers[i]), ZipCodes.format(uppers[i])));
+        }
+
+        return ranges;
+    }
+
+    // Collects ranges in ascending lower bound order, coalescing any that overlap or touch.
+    private static class Builder
+    {
+        private final int[] lowers;
+        private final int[] uppers;
+        private int size;
+
+        Builder(int capacity)
+        {
+            lowers = new int[capacity];
+            uppers = new int[capacity];
+        }
+
+        void append(int lower, int upper)
+        {
+            if (size > 0 && lower <= uppers[size - 1] + 1)
+            {
+                uppers[size - 1] = Math.max(uppers[size - 1], upper);
+                return;
+            }
+
+            lowers[size] = lower;
+            uppers[size] = upper;
+            size++;
+        }
+
+        ZipCodeRangeSet build()
+        {
+            if (size == 0)
+            {
+                return EMPTY;
+            }
+
+            return new ZipCodeRangeSet(Arrays.copyOf(lowers, size), Arrays.copyOf(uppers, size));
+        }
+    }
+}
@@ -0,0 +1,217 @@
+package com.williamsonoma.utility.address;
+
+import com.williamsonoma.api.model.address.PackedZipCodeRange;
+import com.williamsonoma.api.model.address.ZipCodeRange;
+
+/**
+ * Validation, parsing and formatting shared by the zip code compaction engines.
+ */
+final class ZipCodes
+{
+    static final int MIN_ZIP = 0;
+    static final int MAX_ZIP = 99999;
+    static final int UNIVERSE = MAX_ZIP + 1;
+    static final int MAX_ZIP_PLUS_FOUR = 999999999;
+
+    private static final int ZIP_LENGTH = 5;
+    private static final int PLUS_FOUR = 10000;
+
+    private ZipCodes()
+    {
+    }
+
+    static void checkNotNull(ZipCodeRange range) throws IllegalArgumentException
+    {
+        if (range.getLower() == null || range.getUpper() == null)
+        {
+            throw new IllegalArgumentException("Zip code range cannot have null as the upper or lower bound.");
+        }
+    }
+
+    static int parse(String zip) throws IllegalArgumentException
+    {
+        if (zip.length() != ZIP_LENGTH)
+        {
+            throw new IllegalArgumentException("Zip code values must be 5 digits.");
+        }
+
+        var value = 0;
+        for (var i = 0; i < ZIP_LENGTH; i++)
+        {
+            var digit = zip.charAt(i) - '0';
+            if (digit < 0 || digit > 9)
+            {
+                throw new IllegalArgumentException("Zip code values must be 5 digits.");
+            }
+
+            value = value * 10 + digit;
+        }
+
+        return value;
+    }
+
+    /**
+     * Parse a ZIP+4 bound, 123456789 or 12345-6789. A 5 digit zip code stands for the first of its block
+     * as a lower bound and the last of its block as an upper bound.
+     */
+    static int parsePlusFour(String zip, boolean upper) throws IllegalArgumentException
+    {
+        if (zip.length() == ZIP_LENGTH)
+        {
+            return parse(zip) * PLUS_FOUR + (upper ? PLUS_FOUR - 1 : 0);
+        }
+
+        var hyphenated = zip.length() == 10 && zip.charAt(ZIP_LENGTH) == '-';
+        if (zip.length() != 9 && !hyphenated)
+        {
+            throw new IllegalArgumentException("ZIP+4 code values must be 9 digits, optionally with a hyphen after the fifth.");
+        }
+
+        var value = 0;
+        for (var i = 0; i < zip.length(); i++)
+        {
+            if (hyphenated && i == ZIP_LENGTH)
+            {
+                continue;
+            }
+
+            var digit = zip.charAt(i) - '0';
+            if (digit < 0 || digit > 9)
+            {
+                throw new IllegalArgumentException("ZIP+4 code values must be 9 digits, optionally with a hyphen after the fifth.");
+            }
+
+            value = value * 10 + digit;
+        }
+
+        return value;
+    }
+
+    static void checkZip(int zip) throws IllegalArgumentException
+    {
+        if (zip < MIN_ZIP || zip > MAX_ZIP)
+        {
+            throw new IllegalArgumentException("Zip code values must be between 00000 and 99999.");
+        }
+    }
+
+    static void checkZipPlusFour(int zip) throws IllegalArgumentException
+    {
+        if (zip < MIN_ZIP || zip > MAX_ZIP_PLUS_FOUR)
+        {
+            throw new IllegalArgumentException("ZIP+4 code values must be between 00000-0000 and 99999-9999.");
+        }
+    }
+
+    static void checkLengths(int[] lowers, int[] uppers) throws IllegalArgumentException
+    {
+        if (lowers.length != uppers.length)
+        {
+            throw new IllegalArgumentException("Zip code lower and upper bound arrays must be the same length.");
+        }
+    }
+
+    static void checkOrder(int lower, int upper) throws IllegalArgumentException
+    {
+        if (lower > upper)
+        {
+            throw new IllegalArgumentException("Zip code range lower bound cannot be greater than upper bound.");
+        }
+    }
+
+    static long parseRange(ZipCodeRange range) throws IllegalArgumentException
+    {
+        checkNotNull(range);
+
+        var lower = parse(range.getLower());
+        var upper = parse(range.getUpper());
+        checkOrder(lower, upper);
+
+        return PackedZipCodeRange.pack(lower, upper);
+    }
+
+    static long checkRange(int lower, int upper) throws IllegalArgumentException
+    {
+        checkZip(lower);
+        checkZip(upper);
+        checkOrder(lower, upper);
+
+        return PackedZipCodeRange.pack(lower, upper);
+    }
+
+    static long parsePlusFourRange(ZipCodeRange range) throws IllegalArgumentException
+    {
+        checkNotNull(range);
+
+        var lower = parsePlusFour(range.getLower(), false);
+        var upper = parsePlusFour(range.getUpper(), true);
+        checkOrder(lower, upper);
+
+        return PackedZipCodeRange.pack(lower, upper);
+    }
+
+    static long checkPlusFourRange(int lower, int upper) throws IllegalArgumentException
+    {
+        checkZipPlusFour(lower);
+        checkZipPlusFour(upper);
+        checkOrder(lower, upper);
+
+        return PackedZipCodeRange.pack(lower, upper);
+    }
+
+    static ZipCodeRange toRange(long packedRange)
+    {
+        return new ZipCodeRange(format(PackedZipCodeRange.lower(packedRange)), format(PackedZipCodeRange.upper(packedRange)));
+    }
+
+    static String format(int zip)
+    {
+        return ZipStrings.table[zip];
+    }
+
+    static ZipCodeRange toPlusFourRange(long packedRange)
+    {
+        return new ZipCodeRange(formatPlusFour(PackedZipCodeRange.lower(packedRange)), formatPlusFour(PackedZipCodeRange.upper(packedRange)));
+    }
+
+    static String formatPlusFour(int zip)
+    {
+        var digits = new char[10];
+        var value = zip;
+        for (var i = digits.length - 1; i >= 0; i--)
+        {
+            if (i == ZIP_LENGTH)
+            {
+                digits[i] = '-';
+                continue;
+            }
+
+            digits[i] = (char) ('0' + value % 10);
+            value /= 10;
+        }
+
+        return new String(digits);
+    }
+
+    // Every canonical zip string is built once, on first use, and shared by all compacted output.
+    private static final class ZipStrings
+    {
+        private static final String[] table = new String[UNIVERSE];
+
+        static
+        {
+            var digits = new char[ZIP_LENGTH];
+            for (var zip = MIN_ZIP; zip < UNIVERSE; zip++)
+            {
+                var value = zip;
+                for (var i = ZIP_LENGTH - 1; i >= 0; i--)
+                {
+                    digits[i] = (char) ('0' + value % 10);
+                    value /= 10;
+                }
+
+                table[zip] = new String(digits);
+            }
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package com.williamsonoma.utility.address;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import com.williamsonoma.api.model.address.ZipCodeRange;
+
+/**
+ * Compacts ZIP+4 ranges in fixed size chunks, merging the sorted runs as they grow.
+ * Memory stays at one chunk plus the compacted ranges, however many ranges are added.
+ */
+public final class ZipPlusFourCompactor
+{
+    public static final int DEFAULT_CHUNK_SIZE = 1 << 20;
+
+    private final int chunkSize;
+    private final ArrayList<long[]> runs = new ArrayList<long[]>();
+    private long[] chunk;
+    private int size;
+
+    public ZipPlusFourCompactor()
+    {
+        this(DEFAULT_CHUNK_SIZE);
+    }
+
+    /**
+     * @param chunkSize The number of ranges buffered before they are compacted, 8 bytes each.
+     */
+    public ZipPlusFourCompactor(int chunkSize)
+    {
+        if (chunkSize < 1)
+        {
+            throw new IllegalArgumentException("Chunk size must be at least 1.");
+        }
+
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * @return A compactor whose chunk fits count ranges, up to the default chunk size.
+     */
+    static ZipPlusFourCompactor sized(int count)
+    {
+        return new ZipPlusFourCompactor(Math.min(DEFAULT_CHUNK_SIZE, Math.max(1, count)));
+    }
+
+    static Collection<ZipCodeRange> compact(Collection<ZipCodeRange> ranges) throws IllegalArgumentException
+    {
+        var compactor = sized(ranges.size());
+        for (var range : ranges)
+        {
+            compactor.add(range);
+        }
+
+        return compactor.toRangeSet().toRanges();
+    }
+
+    static long[] compact(int[] lowers, int[] uppers) throws IllegalArgumentException
+    {
+        ZipCodes.checkLengths(lowers, uppers);
+
+        var compactor = sized(lowers.length);
+        for (var i = 0; i < lowers.length; i++)
+        {
+            compactor.add(lowers[i], uppers[i]);
+        }
+
+        return compactor.toPacked();
+    }
+
+    public void add(ZipCodeRange range) throws IllegalArgumentException
+    {
+        append(ZipCodes.parsePlusFourRange(range));
+    }
+
+    public void add(int lower, int upper) throws IllegalArgumentException
+    {
+        append(ZipCodes.checkPlusFourRange(lower, upper));
+    }
+
+    /**
+     * @return The ranges added so far, compacted in ascending order and packed into longs. More ranges may still be added.
+     */
+    public long[] toPacked()
+    {
+        flush();
+        while (runs.size() > 1)
+        {
+            mergeTopRuns();
+        }
+
+        return runs.isEmpty() ? new long[0] : runs.get(0).clone();
+    }
+
+    public ZipPlusFourRangeSet toRangeSet()
+    {
+        return ZipPlusFourRangeSet.fromCompacted(toPacked());
+    }
+
+    private void append(long range)
+    {
+        if (chunk == null)
+        {
+            chunk = new long[chunkSize];
+        }
+
+        chunk[size++] = range;
+        if (size == chunkSize)
+        {
+            flush();
+        }
+    }
+
+    private void flush()
+    {
+        if (size == 0)
+        {
+            return;
+        }
+
+        Arrays.sort(chunk, 0, size);
+        runs.add(Arrays.copyOf(chunk, PackedRanges.coalesce(chunk, size)));
+        size = 0;
+
+        // Keep run sizes halving towards the top so every range is merged O(log n) times
+        while (runs.size() > 1 && runs.get(runs.size() - 2).length <= 2 * runs.get(runs.size() - 1).length)
+        {
+            mergeTopRuns();
+        }
+    }
+
+    private void mergeTopRuns()
+    {
+        var top = runs.remove(runs.size() - 1);
+        var below = runs.remove(runs.size() - 1);
+        runs.add(PackedRanges.union(below, top));
+    }
+}
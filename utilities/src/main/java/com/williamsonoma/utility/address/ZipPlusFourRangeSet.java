@@ -0,0 +1,67 @@
+package com.williamsonoma.utility.address;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import com.williamsonoma.api.model.address.ZipCodeRange;
+
+/**
+ * Immutable compacted ZIP+4 ranges held as sorted primitive bounds.
+ */
+public final class ZipPlusFourRangeSet extends SortedRangeBounds
+{
+    public static final ZipPlusFourRangeSet EMPTY = new ZipPlusFourRangeSet(new int[0], new int[0]);
+
+    private ZipPlusFourRangeSet(int[] lowers, int[] uppers)
+    {
+        super(lowers, uppers);
+    }
+
+    /**
+     * Build a range set from ZIP+4 ranges in any order, compacting them on the way in.
+     */
+    public static ZipPlusFourRangeSet of(Collection<ZipCodeRange> ranges) throws IllegalArgumentException
+    {
+        var compactor = ZipPlusFourCompactor.sized(ranges.size());
+        for (var range : ranges)
+        {
+            compactor.add(range);
+        }
+
+        return compactor.toRangeSet();
+    }
+
+    // Takes a sorted array of compacted packed ranges.
+    static ZipPlusFourRangeSet fromCompacted(long[] packedRanges)
+    {
+        if (packedRanges.length == 0)
+        {
+            return EMPTY;
+        }
+
+        return new ZipPlusFourRangeSet(lowers(packedRanges, packedRanges.length), uppers(packedRanges, packedRanges.length));
+    }
+
+    /**
+     * @param zip A ZIP+4 code, 123456789 or 12345-6789.
+     */
+    public boolean contains(String zip) throws IllegalArgumentException
+    {
+        if (zip.length() == 5)
+        {
+            throw new IllegalArgumentException("ZIP+4 code values must be 9 digits, optionally with a hyphen after the fifth.");
+        }
+
+        return contains(ZipCodes.parsePlusFour(zip, false));
+    }
+
+    public Collection<ZipCodeRange> toRanges()
+    {
+        var ranges = new ArrayList<ZipCodeRange>(lowers.length);
+        for (var i = 0; i < lowers.length; i++)
+        {
+            ranges.add(new ZipCodeRange(ZipCodes.formatPlusFour(lowers[i]), ZipCodes.formatPlusFour(uppers[i])));
+        }
+
+        return ranges;
+    }
+}
@@ -3,10 +3,13 @@ package com.williamsonoma.utility.address;
 import java.util.Arrays;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.Random;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
 import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.context.junit4.SpringRunner;
 import org.springframework.boot.test.context.SpringBootTest;
@@ -15,6 +18,7 @@ import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.apache.logging.log4j.Logger;
 import org.apache.logging.log4j.LogManager;
+import com.williamsonoma.api.model.address.PackedZipCodeRange;
 import com.williamsonoma.api.model.address.ZipCodeRange;
 import com.williamsonoma.api.utility.address.ZipCode;
 import com.williamsonoma.utility.address.AlgorythmZipCode;
@@ -230,6 +234,79 @@ public class AlgorythmZipCodeFunctionalTest
     }
 
 
+    @Test
+    public void compactAdjacentChainAcrossSlices()
+    {
+        logger.info("Test compacting a shuffled chain of fifty thousand adjacent ranges into one range successfully");
+        var ranges = new ArrayList<ZipCodeRange>();
+        for (var zip = 0; zip < 100000; zip += 2)
+        {
+            ranges.add(new ZipCodeRange(String.format("%05d", zip), String.format("%05d", zip + 1)));
+        }
+
+        Collections.shuffle(ranges, new Random(7));
+
+        var compactedRanges = zipCode.compactRanges(ranges).toArray(new ZipCodeRange[0]);
+
+        assertEquals(1, compactedRanges.length);
+        assertEquals("00000", compactedRanges[0].getLower());
+        assertEquals("99999", compactedRanges[0].getUpper());
+    }
+
+    @Test
+    public void compactSharesCanonicalZipStrings()
+    {
+        logger.info("Test compacted ranges reuse the shared canonical zip code strings");
+        var ranges = Arrays.asList(new ZipCodeRange("00010", "00015"));
+
+        var first = zipCode.compactRanges(ranges).toArray(new ZipCodeRange[0]);
+        var second = zipCode.compactRanges(ranges).toArray(new ZipCodeRange[0]);
+
+        assertSame(first[0].getLower(), second[0].getLower());
+        assertSame(first[0].getUpper(), second[0].getUpper());
+    }
+
+    @Test
+    public void compactPrimitiveThreeToTwo()
+    {
+        logger.info("Test compacting three out-of-order primitive ranges into two packed ranges successfully");
+        var lowers = new int[] { 9, 0, 3 };
+        var uppers = new int[] { 11, 5, 7 };
+
+        var result = zipCode.compactRanges(lowers, uppers);
+
+        assertEquals(2, result.length);
+        assertEquals(0, PackedZipCodeRange.lower(result[0]));
+        assertEquals(7, PackedZipCodeRange.upper(result[0]));
+        assertEquals(9, PackedZipCodeRange.lower(result[1]));
+        assertEquals(11, PackedZipCodeRange.upper(result[1]));
+    }
+
+    @Test
+    public void compactPrimitiveRangesThroughDefaultMethod()
+    {
+        logger.info("Test an implementation with only the collection method gets primitive compaction from the interface");
+        ZipCode collectionOnly = ranges -> zipCode.compactRanges(ranges);
+        var lowers = new int[] { 9, 0, 4 };
+        var uppers = new int[] { 11, 5, 7 };
+
+        assertTrue(Arrays.equals(zipCode.compactRanges(lowers, uppers), collectionOnly.compactRanges(lowers, uppers)));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void compactPrimitiveRangesOutsideUniverse()
+    {
+        logger.info("Test primitive zip code above 99999 expecting IllegalArgumentException");
+        zipCode.compactRanges(new int[] { 0, 99990 }, new int[] { 5, 100000 });
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void compactPrimitiveRangesWithMismatchedLengths()
+    {
+        logger.info("Test primitive bound arrays of different lengths expecting IllegalArgumentException");
+        zipCode.compactRanges(new int[] { 0, 7 }, new int[] { 5 });
+    }
+
     @Test()
     public void compactRangesWithNull()
     {
@@ -0,0 +1,88 @@
+package com.williamsonoma.utility.address;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Random;
+import org.junit.Test;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.assertEquals;
+import org.apache.logging.log4j.Logger;
+import org.apache.logging.log4j.LogManager;
+import com.williamsonoma.api.model.address.ZipCodeRange;
+
+/**
+ * Functional tests for compacting many range lists in one call.
+ */
+public class BatchZipCodeCompactorFunctionalTest
+{
+    private static final Logger logger = LogManager.getLogger(BatchZipCodeCompactorFunctionalTest.class);
+
+    private final BatchZipCodeCompactor compactor = new BatchZipCodeCompactor();
+
+    @Test
+    public void compactMixedSizesInCallerOrder()
+    {
+        logger.info("Test compacting small, large, empty and null range lists in one call");
+        var random = new Random(11);
+        var large = new ArrayList<ZipCodeRange>();
+        for (var i = 0; i < 100000; i++)
+        {
+            var lower = random.nextInt(50000);
+            large.add(new ZipCodeRange(String.format("%05d", lower), String.format("%05d", lower + random.nextInt(10))));
+        }
+
+        var rangeLists = new LinkedHashMap<String, Collection<ZipCodeRange>>();
+        rangeLists.put("small", Arrays.asList(
+               new ZipCodeRange("00009", "00011"),
+               new ZipCodeRange("00000", "00005"),
+               new ZipCodeRange("00003", "00007")));
+        rangeLists.put("large", large);
+        rangeLists.put("empty", new ArrayList<ZipCodeRange>());
+        rangeLists.put("null", null);
+
+        var result = compactor.compactAll(rangeLists);
+
+        assertEquals(Arrays.asList("small", "large", "empty", "null"), new ArrayList<String>(result.keySet()));
+        assertEquals(2, result.get("small").size());
+        assertEquals(ZipCodeRangeSet.of(new FixedUniverseZipCode().compactRanges(large)), ZipCodeRangeSet.of(result.get("large")));
+        assertTrue(result.get("empty").isEmpty());
+        assertTrue(result.get("null").isEmpty());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void compactWithInvalidList()
+    {
+        logger.info("Test one invalid range list expecting IllegalArgumentException");
+        var rangeLists = new LinkedHashMap<String, Collection<ZipCodeRange>>();
+        rangeLists.put("valid", Arrays.asList(new ZipCodeRange("00000", "00005")));
+        rangeLists.put("invalid", Arrays.asList(new ZipCodeRange("00003", "00002")));
+
+        compactor.compactAll(rangeLists);
+    }
+
+    @Test
+    public void invalidListMessageIsStable()
+    {
+        logger.info("Test the invalid list error names the first invalid list and reads the same on every run");
+        var rangeLists = new LinkedHashMap<String, Collection<ZipCodeRange>>();
+        for (var i = 0; i < 50; i++)
+        {
+            rangeLists.put("list" + i, Arrays.asList(new ZipCodeRange("00000", "00005"), new ZipCodeRange("00003", i % 10 == 9 ? "00002" : "00004")));
+        }
+
+        for (var run = 0; run < 20; run++)
+        {
+            try
+            {
+                compactor.compactAll(rangeLists);
+                assertTrue(false);
+            }
+            catch (IllegalArgumentException e)
+            {
+                assertEquals("Range list list9: Zip code range lower bound cannot be greater than upper bound.", e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package com.williamsonoma.utility.address;
+
+import java.util.Arrays;
+import org.junit.Test;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertEquals;
+import org.apache.logging.log4j.Logger;
+import org.apache.logging.log4j.LogManager;
+import com.williamsonoma.api.model.address.PackedZipCodeRange;
+import com.williamsonoma.api.model.address.ZipCodeRange;
+
+/**
+ * Functional tests for the caching ZipCode decorator.
+ */
+public class CachingZipCodeFunctionalTest
+{
+    private static final Logger logger = LogManager.getLogger(CachingZipCodeFunctionalTest.class);
+
+    @Test
+    public void reorderedInputHitsCache()
+    {
+        logger.info("Test the same ranges in a different order share one cached result");
+        var zipCode = new CachingZipCode(new AlgorythmZipCode(false), 1000);
+
+        var first = zipCode.compactRanges(Arrays.asList(
+               new ZipCodeRange("00009", "00011"),
+               new ZipCodeRange("00000", "00005")));
+        var second = zipCode.compactRanges(Arrays.asList(
+               new ZipCodeRange("00000", "00005"),
+               new ZipCodeRange("00009", "00011")));
+
+        assertSame(first, second);
+        assertEquals(2, second.size());
+        assertEquals(1, zipCode.getHitCount());
+        assertEquals(1, zipCode.getMissCount());
+    }
+
+    @Test
+    public void primitiveAndStringInputShareCache()
+    {
+        logger.info("Test primitive and String input with the same ranges share one cached result");
+        var zipCode = new CachingZipCode(new AlgorythmZipCode(false), 1000);
+
+        zipCode.compactRanges(Arrays.asList(new ZipCodeRange("00010", "00015")));
+        var result = zipCode.compactRanges(new int[] { 10 }, new int[] { 15 });
+
+        assertEquals(1, result.length);
+        assertEquals(1, zipCode.getHitCount());
+    }
+
+    @Test
+    public void leastRecentlyUsedIsEvicted()
+    {
+        logger.info("Test the least recently used result is evicted when the cache is full");
+        var zipCode = new CachingZipCode(new AlgorythmZipCode(false), 6);
+        var a = Arrays.asList(new ZipCodeRange("00001", "00001"));
+        var b = Arrays.asList(new ZipCodeRange("00002", "00002"));
+        var c = Arrays.asList(new ZipCodeRange("00003", "00003"));
+
+        zipCode.compactRanges(a);
+        zipCode.compactRanges(b);
+        zipCode.compactRanges(a);
+        zipCode.compactRanges(c);
+
+        assertEquals(1, zipCode.getEvictionCount());
+        assertEquals(2, zipCode.getCachedResultCount());
+
+        zipCode.compactRanges(a);
+        assertEquals(2, zipCode.getHitCount());
+    }
+
+    @Test
+    public void equalHashesDoNotShareResult()
+    {
+        logger.info("Test inputs whose keys hash the same still get their own compacted result");
+        var zipCode = new CachingZipCode(new AlgorythmZipCode(false), 1000);
+        var first = new int[][] { { 0, 0 }, { 1, 40 } };
+        var second = new int[][] { { 0, 0 }, { 0, 71 } };
+        assertEquals(CachingZipCode.RangeKey.of(first[0], first[1]).hashCode(), CachingZipCode.RangeKey.of(second[0], second[1]).hashCode());
+
+        zipCode.compactRanges(first[0], first[1]);
+        var result = zipCode.compactRanges(second[0], second[1]);
+
+        assertEquals(71, PackedZipCodeRange.upper(result[0]));
+        assertEquals(0, zipCode.getHitCount());
+        assertEquals(2, zipCode.getMissCount());
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void cachedRangesCannotBeChanged()
+    {
+        logger.info("Test changing a shared cached range expecting UnsupportedOperationException");
+        var zipCode = new CachingZipCode(new AlgorythmZipCode(false), 1000);
+
+        var result = zipCode.compactRanges(Arrays.asList(new ZipCodeRange("00010", "00015")));
+        result.iterator().next().setLower("00000");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void invalidInputIsRejected()
+    {
+        logger.info("Test invalid zip code expecting IllegalArgumentException");
+        new CachingZipCode(new AlgorythmZipCode(false), 1000).compactRanges(Arrays.asList(new ZipCodeRange("0001", "00005")));
+    }
+}
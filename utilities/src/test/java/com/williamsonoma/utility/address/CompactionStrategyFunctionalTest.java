@@ -0,0 +1,130 @@
+package com.williamsonoma.utility.address;
+
+import java.util.Arrays;
+import java.util.Random;
+import org.junit.Test;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertArrayEquals;
+import org.apache.logging.log4j.Logger;
+import org.apache.logging.log4j.LogManager;
+import com.williamsonoma.api.model.address.ZipCodeRange;
+import com.williamsonoma.utility.address.CompactionStrategy.Engine;
+
+/**
+ * Functional tests for choosing a compaction engine per call.
+ */
+public class CompactionStrategyFunctionalTest
+{
+    private static final Logger logger = LogManager.getLogger(CompactionStrategyFunctionalTest.class);
+
+    @Test
+    public void selectsEngineBySizeAndOrder()
+    {
+        logger.info("Test the adaptive strategy picks the engine from the call size and whether the input is sorted");
+        var strategy = CompactionStrategy.adaptive(Integer.MAX_VALUE, 100, 1000);
+
+        assertEquals(Engine.SortMerge, strategy.select(99, false));
+        assertEquals(Engine.Presorted, strategy.select(99, true));
+        assertEquals(Engine.FixedUniverse, strategy.select(100, false));
+        assertEquals(Engine.Presorted, strategy.select(100, true));
+        assertFalse(strategy.isParallel(999));
+        assertEquals(Runtime.getRuntime().availableProcessors() > 1, strategy.isParallel(1000));
+
+        strategy = CompactionStrategy.adaptive(10, 100, 1000);
+        assertEquals(Engine.SortMerge, strategy.select(9, false));
+        assertEquals(Engine.RadixSort, strategy.select(10, false));
+        assertEquals(Engine.RadixSort, strategy.select(99, false));
+        assertEquals(Engine.FixedUniverse, strategy.select(100, false));
+    }
+
+    @Test
+    public void radixSortKeepsDuplicateAndNestedBounds()
+    {
+        logger.info("Test the radix sort engine counts duplicate bounds and keeps nested ranges inside their outer range");
+        var zipCode = new AlgorythmZipCode(CompactionStrategy.fixed(Engine.RadixSort));
+        var packedRanges = zipCode.compactRanges(
+               new int[] { 0, 2, 5, 5, 5, 20, 21, 30, 99999 },
+               new int[] { 10, 3, 6, 6, 11, 20, 25, 30, 99999 });
+
+        assertArrayEquals(new long[] {
+               ZipCodes.checkRange(0, 11),
+               ZipCodes.checkRange(20, 25),
+               ZipCodes.checkRange(30, 30),
+               ZipCodes.checkRange(99999, 99999) }, packedRanges);
+    }
+
+    @Test
+    public void fixedStrategyIgnoresSize()
+    {
+        logger.info("Test a fixed strategy always uses its engine, and only takes the single pass on sorted input");
+        assertTrue(CompactionStrategy.fixed(Engine.ForkJoin).isParallel(1));
+        assertFalse(CompactionStrategy.fixed(Engine.SortMerge).isParallel(Integer.MAX_VALUE));
+        assertEquals(Engine.TreeSet, CompactionStrategy.fixed(Engine.TreeSet).select(1000000, true));
+        assertEquals(Engine.Presorted, CompactionStrategy.fixed(Engine.Presorted).select(10, true));
+        assertEquals(Engine.SortMerge, CompactionStrategy.fixed(Engine.Presorted).select(10, false));
+    }
+
+    @Test
+    public void enginesAgree()
+    {
+        logger.info("Test every engine and the adaptive default return the same compacted ranges");
+        var random = new Random(14);
+        var lowers = new int[5000];
+        var uppers = new int[5000];
+        for (var i = 0; i < lowers.length; i++)
+        {
+            lowers[i] = random.nextInt(ZipCodes.UNIVERSE);
+            uppers[i] = Math.min(ZipCodes.MAX_ZIP, lowers[i] + random.nextInt(40));
+        }
+
+        var packedRanges = new long[lowers.length];
+        for (var i = 0; i < lowers.length; i++)
+        {
+            packedRanges[i] = ZipCodes.checkRange(lowers[i], uppers[i]);
+        }
+
+        var expected = ZipCodeRangeSet.of(packedRanges).toPacked();
+        assertArrayEquals(expected, new AlgorythmZipCode().compactRanges(lowers, uppers));
+        for (var engine : Engine.values())
+        {
+            var zipCode = new AlgorythmZipCode(CompactionStrategy.fixed(engine));
+            assertArrayEquals(engine.name(), expected, zipCode.compactRanges(lowers, uppers));
+
+            // Several ranges nested in one outer range, with duplicate bounds
+            assertArrayEquals(engine.name(), new long[] { ZipCodes.checkRange(0, 10), ZipCodes.checkRange(200, 300) }, zipCode.compactRanges(
+                   new int[] { 0, 2, 5, 200, 200, 250, 250 },
+                   new int[] { 10, 3, 6, 300, 260, 300, 260 }));
+        }
+
+        // Sorted input takes the single pass
+        Arrays.sort(packedRanges);
+        var ranges = new ZipCodeRange[packedRanges.length];
+        for (var i = 0; i < packedRanges.length; i++)
+        {
+            ranges[i] = ZipCodes.toRange(packedRanges[i]);
+        }
+
+        var metrics = new InMemoryCompactionMetrics();
+        var zipCode = new AlgorythmZipCode(CompactionStrategy.adaptive(1 << 20, 1 << 20, Integer.MAX_VALUE));
+        zipCode.setMetrics(metrics);
+
+        assertEquals(ZipCodeRangeSet.fromCompacted(expected, expected.length).toRanges().size(), zipCode.compactRanges(Arrays.asList(ranges)).size());
+        assertEquals(0, metrics.getPhaseCount(CompactionMetrics.Phase.Sorting));
+        assertEquals(1, metrics.getPhaseCount(CompactionMetrics.Phase.Extraction));
+    }
+
+    @Test
+    public void calibrationFindsThresholds()
+    {
+        logger.info("Test startup calibration measures the engines and returns usable thresholds");
+        var strategy = CompactionStrategy.calibrate();
+        logger.info("universe threshold {}, parallel threshold {}", strategy.getUniverseThreshold(), strategy.getParallelThreshold());
+
+        assertTrue(strategy.getRadixThreshold() > 0);
+        assertTrue(strategy.getUniverseThreshold() > 0);
+        assertTrue(strategy.getParallelThreshold() > 0);
+        assertArrayEquals(new long[] { ZipCodes.checkRange(0, 9) }, new AlgorythmZipCode(strategy).compactRanges(new int[] { 5, 0 }, new int[] { 9, 4 }));
+    }
+}
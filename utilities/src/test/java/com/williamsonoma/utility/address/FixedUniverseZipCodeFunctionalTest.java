@@ -0,0 +1,150 @@
+package com.williamsonoma.utility.address;
+
+import java.util.Arrays;
+import java.util.ArrayList;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.assertEquals;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.apache.logging.log4j.Logger;
+import org.apache.logging.log4j.LogManager;
+import com.williamsonoma.api.model.address.PackedZipCodeRange;
+import com.williamsonoma.api.model.address.ZipCodeRange;
+import com.williamsonoma.api.utility.address.ZipCode;
+
+/**
+ * Functional tests and exception conditions for the fixed universe engine.
+ */
+@RunWith(SpringRunner.class)
+@ContextConfiguration
+@SpringBootTest
+public class FixedUniverseZipCodeFunctionalTest
+{
+    @Configuration
+    static class Config
+    {
+        @Bean
+        public ZipCode zipCode()
+        {
+            return new FixedUniverseZipCode();
+        }
+    }
+
+    @Autowired
+    private ZipCode zipCode;
+
+    private static final Logger logger = LogManager.getLogger(FixedUniverseZipCodeFunctionalTest.class);
+
+    @Test
+    public void compactThreeToTwo()
+    {
+        logger.info("Test compacting three out-of-order ranges into two ranges successfully");
+        var ranges = Arrays.asList(
+               new ZipCodeRange("00009", "00011"),
+               new ZipCodeRange("00000", "00005"),
+               new ZipCodeRange("00003", "00007"));
+
+        var compactedRanges = zipCode.compactRanges(ranges).toArray(new ZipCodeRange[0]);
+
+        assertEquals(2, compactedRanges.length);
+        assertRange(compactedRanges[0], "00000", "00007");
+        assertRange(compactedRanges[1], "00009", "00011");
+    }
+
+    @Test
+    public void compactThreeAdjacentToOne()
+    {
+        logger.info("Test compacting three adjacent ranges into one range successfully");
+        var ranges = Arrays.asList(
+               new ZipCodeRange("00006", "00008"),
+               new ZipCodeRange("00009", "00011"),
+               new ZipCodeRange("00003", "00006"));
+
+        var compactedRanges = zipCode.compactRanges(ranges).toArray(new ZipCodeRange[0]);
+
+        assertEquals(1, compactedRanges.length);
+        assertRange(compactedRanges[0], "00003", "00011");
+    }
+
+    @Test
+    public void compactNestedToOne()
+    {
+        logger.info("Test compacting nested and duplicate ranges into one range successfully");
+        var ranges = Arrays.asList(
+               new ZipCodeRange("00000", "00005"),
+               new ZipCodeRange("00001", "00010"),
+               new ZipCodeRange("00007", "00008"),
+               new ZipCodeRange("00007", "00008"));
+
+        var compactedRanges = zipCode.compactRanges(ranges).toArray(new ZipCodeRange[0]);
+
+        assertEquals(1, compactedRanges.length);
+        assertRange(compactedRanges[0], "00000", "00010");
+    }
+
+    @Test
+    public void compactUniverseEdges()
+    {
+        logger.info("Test compacting ranges touching both ends of the zip code universe successfully");
+        var ranges = Arrays.asList(
+               new ZipCodeRange("99990", "99999"),
+               new ZipCodeRange("00000", "00000"));
+
+        var compactedRanges = zipCode.compactRanges(ranges).toArray(new ZipCodeRange[0]);
+
+        assertEquals(2, compactedRanges.length);
+        assertRange(compactedRanges[0], "00000", "00000");
+        assertRange(compactedRanges[1], "99990", "99999");
+    }
+
+    @Test
+    public void compactPrimitiveNestedToOne()
+    {
+        logger.info("Test compacting nested primitive ranges into one packed range successfully");
+        var result = zipCode.compactRanges(new int[] { 0, 1, 7 }, new int[] { 5, 10, 8 });
+
+        assertEquals(1, result.length);
+        assertEquals(PackedZipCodeRange.pack(0, 10), result[0]);
+    }
+
+    @Test
+    public void compactZero()
+    {
+        logger.info("Test compacting an empty range set into an empty range set successfully");
+        assertTrue(zipCode.compactRanges(new ArrayList<ZipCodeRange>()).isEmpty());
+        assertTrue(zipCode.compactRanges(null).isEmpty());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void compactRangesWithNullLowerBound()
+    {
+        logger.info("Test null value in lower bound expecting IllegalArgumentException");
+        zipCode.compactRanges(Arrays.asList(new ZipCodeRange(null, "00009")));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void compactRangesWithNonNumericUpperZipCode()
+    {
+        logger.info("Test non-numeric zip code in upper bound expecting IllegalArgumentException");
+        zipCode.compactRanges(Arrays.asList(new ZipCodeRange("00000", "0005B")));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void compactRangesWithLowerGreaterThanUpperBound()
+    {
+        logger.info("Test lower bound greater than upper bound expecting IllegalArgumentException");
+        zipCode.compactRanges(Arrays.asList(new ZipCodeRange("00003", "00002")));
+    }
+
+    private void assertRange(ZipCodeRange range, String lower, String upper)
+    {
+        assertEquals(lower, range.getLower());
+        assertEquals(upper, range.getUpper());
+    }
+}
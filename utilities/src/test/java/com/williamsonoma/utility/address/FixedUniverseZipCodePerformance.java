@@ -0,0 +1,82 @@
+package com.williamsonoma.utility.address;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.apache.logging.log4j.Logger;
+import org.apache.logging.log4j.LogManager;
+import com.williamsonoma.api.model.address.ZipCodeRange;
+import com.williamsonoma.api.utility.address.ZipCode;
+
+/**
+ * Test performance of the fixed universe sweep with different sample sizes.
+ */
+@RunWith(SpringRunner.class)
+@ContextConfiguration
+@SpringBootTest
+public class FixedUniverseZipCodePerformance
+{
+    @Configuration
+    static class Config
+    {
+        @Bean
+        public ZipCode zipCode() {
+            return new FixedUniverseZipCode();
+        }
+    }
+
+    @Autowired
+    private ZipCode zipCode;
+
+    private static final Logger logger = LogManager.getLogger(FixedUniverseZipCodePerformance.class);
+
+    @Test
+    public void compactOneThousand()
+    {
+        logger.info("Begin fixed universe performance test for one thousand ranges");
+
+        String elapsedTime = AlgorythmZipCodePerformanceTestRunner.runTest(zipCode, 1000);
+        logger.info("Finished in {}", elapsedTime);
+    }
+
+    @Test
+    public void compactTenThousand()
+    {
+        logger.info("Begin fixed universe performance test for ten thousand ranges");
+
+        String elapsedTime = AlgorythmZipCodePerformanceTestRunner.runTest(zipCode, 10000);
+        logger.info("Finished in {}", elapsedTime);
+    }
+
+    @Test
+    public void compactHundredThousand()
+    {
+        logger.info("Begin fixed universe performance test for one hundred thousand ranges");
+
+        String elapsedTime = AlgorythmZipCodePerformanceTestRunner.runTest(zipCode, 100000);
+        logger.info("Finished in {}", elapsedTime);
+    }
+
+    @Test
+    public void compactOneMillion()
+    {
+        logger.info("Begin fixed universe performance test for one million ranges");
+
+        String elapsedTime = AlgorythmZipCodePerformanceTestRunner.runTest(zipCode, 1000000);
+        logger.info("Finished in {}", elapsedTime);
+    }
+
+    @Test
+    public void compactFiveMillion()
+    {
+        logger.info("Begin fixed universe performance test for five million ranges");
+
+        String elapsedTime = AlgorythmZipCodePerformanceTestRunner.runTest(zipCode, 5000000);
+        logger.info("Finished in {}", elapsedTime);
+    }
+}
@@ -0,0 +1,62 @@
+package com.williamsonoma.utility.address;
+
+import java.util.Arrays;
+import org.junit.Test;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.assertEquals;
+import org.apache.logging.log4j.Logger;
+import org.apache.logging.log4j.LogManager;
+import com.williamsonoma.api.model.address.ZipCodeRange;
+
+/**
+ * Functional tests for recording compactRanges metrics.
+ */
+public class InMemoryCompactionMetricsFunctionalTest
+{
+    private static final Logger logger = LogManager.getLogger(InMemoryCompactionMetricsFunctionalTest.class);
+
+    @Test
+    public void serialCallRecordsEveryPhase()
+    {
+        logger.info("Test a serial compactRanges call records each phase, sizes and compaction ratio");
+        var metrics = new InMemoryCompactionMetrics();
+        var zipCode = new AlgorythmZipCode(false);
+        zipCode.setMetrics(metrics);
+
+        zipCode.compactRanges(Arrays.asList(
+               new ZipCodeRange("00009", "00011"),
+               new ZipCodeRange("00000", "00005"),
+               new ZipCodeRange("00003", "00007"),
+               new ZipCodeRange("00004", "00006")));
+        logger.info("metrics\n{}", metrics.dump());
+
+        assertEquals(1, metrics.getCallCount());
+        assertEquals(1, metrics.getPhaseCount(CompactionMetrics.Phase.Validation));
+        assertEquals(1, metrics.getPhaseCount(CompactionMetrics.Phase.BoundInsertion));
+        assertEquals(1, metrics.getPhaseCount(CompactionMetrics.Phase.Extraction));
+        assertEquals(1, metrics.getPhaseCount(CompactionMetrics.Phase.Formatting));
+        assertEquals(0, metrics.getPhaseCount(CompactionMetrics.Phase.ParallelCompaction));
+        assertEquals(2.0, metrics.getCompactionRatio(), 0.0);
+        assertEquals(1, metrics.getInputSizeHistogram()[3]);
+        assertEquals(1, metrics.getOutputSizeHistogram()[2]);
+        assertTrue(metrics.getAllocatedBytes() != 0);
+    }
+
+    @Test
+    public void parallelPrimitiveCallRecordsParallelPhase()
+    {
+        logger.info("Test a parallel primitive compactRanges call records the parallel phase only");
+        var metrics = new InMemoryCompactionMetrics();
+        var zipCode = new AlgorythmZipCode(true);
+        zipCode.setMetrics(metrics);
+
+        zipCode.compactRanges(new int[] { 0, 7 }, new int[] { 5, 9 });
+
+        assertEquals(1, metrics.getPhaseCount(CompactionMetrics.Phase.ParallelCompaction));
+        assertEquals(0, metrics.getPhaseCount(CompactionMetrics.Phase.Formatting));
+        assertEquals(2, metrics.getOutputRanges());
+
+        metrics.reset();
+        assertEquals(0, metrics.getCallCount());
+    }
+}
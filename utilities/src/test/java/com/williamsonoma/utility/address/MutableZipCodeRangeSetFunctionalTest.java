@@ -0,0 +1,109 @@
+package com.williamsonoma.utility.address;
+
+import java.util.Arrays;
+import java.util.Random;
+import org.junit.Test;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertEquals;
+import org.apache.logging.log4j.Logger;
+import org.apache.logging.log4j.LogManager;
+import com.williamsonoma.api.model.address.ZipCodeRange;
+
+/**
+ * Functional tests for editing a compacted range set in place.
+ */
+public class MutableZipCodeRangeSetFunctionalTest
+{
+    private static final Logger logger = LogManager.getLogger(MutableZipCodeRangeSetFunctionalTest.class);
+
+    @Test
+    public void addAdjacentMergesToOne()
+    {
+        logger.info("Test adding adjacent ranges merges them into one range");
+        var rangeSet = new MutableZipCodeRangeSet(Arrays.asList(new ZipCodeRange("00001", "00003")));
+        rangeSet.add(new ZipCodeRange("00004", "00007"));
+
+        var ranges = rangeSet.toRanges().toArray(new ZipCodeRange[0]);
+        assertEquals(1, ranges.length);
+        assertEquals("00001", ranges[0].getLower());
+        assertEquals("00007", ranges[0].getUpper());
+    }
+
+    @Test
+    public void addBridgingRangeMergesNeighbours()
+    {
+        logger.info("Test adding a range that bridges several ranges merges them all");
+        var rangeSet = new MutableZipCodeRangeSet();
+        rangeSet.add(10, 20);
+        rangeSet.add(30, 40);
+        rangeSet.add(50, 60);
+        rangeSet.add(15, 52);
+
+        assertEquals(1, rangeSet.size());
+        assertTrue(rangeSet.contains(10));
+        assertTrue(rangeSet.contains(60));
+        assertFalse(rangeSet.contains(61));
+    }
+
+    @Test
+    public void removeMiddleSplitsRange()
+    {
+        logger.info("Test removing the middle of a range splits it in two");
+        var rangeSet = new MutableZipCodeRangeSet(Arrays.asList(new ZipCodeRange("00100", "00200")));
+        rangeSet.remove(new ZipCodeRange("00150", "00160"));
+
+        var ranges = rangeSet.toRanges().toArray(new ZipCodeRange[0]);
+        assertEquals(2, ranges.length);
+        assertEquals("00100", ranges[0].getLower());
+        assertEquals("00149", ranges[0].getUpper());
+        assertEquals("00161", ranges[1].getLower());
+        assertEquals("00200", ranges[1].getUpper());
+    }
+
+    @Test
+    public void randomEditsMatchPerZipModel()
+    {
+        logger.info("Test random adds and removes against a per zip code model");
+        var random = new Random(42);
+        var model = new boolean[ZipCodes.UNIVERSE];
+        var rangeSet = new MutableZipCodeRangeSet();
+
+        for (var edit = 0; edit < 5000; edit++)
+        {
+            var lower = random.nextInt(ZipCodes.UNIVERSE);
+            var upper = Math.min(ZipCodes.MAX_ZIP, lower + random.nextInt(500));
+            var adding = random.nextInt(3) > 0;
+
+            if (adding)
+            {
+                rangeSet.add(lower, upper);
+            }
+            else
+            {
+                rangeSet.remove(lower, upper);
+            }
+
+            Arrays.fill(model, lower, upper + 1, adding);
+        }
+
+        var ranges = 0;
+        for (var zip = 0; zip < ZipCodes.UNIVERSE; zip++)
+        {
+            assertEquals(model[zip], rangeSet.contains(zip));
+            if (model[zip] && (zip == 0 || !model[zip - 1]))
+            {
+                ranges++;
+            }
+        }
+
+        assertEquals(ranges, rangeSet.size());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void addLowerGreaterThanUpperBound()
+    {
+        logger.info("Test adding lower bound greater than upper bound expecting IllegalArgumentException");
+        new MutableZipCodeRangeSet().add(new ZipCodeRange("00003", "00002"));
+    }
+}
@@ -0,0 +1,170 @@
+package com.williamsonoma.utility.address;
+
+import java.io.ByteArrayInputStream;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.junit.Test;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertArrayEquals;
+import org.apache.logging.log4j.Logger;
+import org.apache.logging.log4j.LogManager;
+import com.williamsonoma.api.model.address.ZipCodeRange;
+
+/**
+ * Functional tests for compacting with the bounds and results held off heap.
+ */
+public class OffHeapZipCodeCompactorFunctionalTest
+{
+    private static final Logger logger = LogManager.getLogger(OffHeapZipCodeCompactorFunctionalTest.class);
+
+    @Test
+    public void matchesHeapCompaction()
+    {
+        logger.info("Test off-heap compaction returns the same ranges as the heap engines while its buffers grow");
+        var random = new Random(22);
+        var lowers = new int[200000];
+        var uppers = new int[200000];
+        for (var i = 0; i < lowers.length; i++)
+        {
+            lowers[i] = random.nextInt(ZipCodes.UNIVERSE);
+            uppers[i] = Math.min(ZipCodes.MAX_ZIP, lowers[i] + random.nextInt(3));
+        }
+
+        try (var compactor = new OffHeapZipCodeCompactor(16))
+        {
+            compactor.add(lowers, uppers);
+            compactor.add(new ZipCodeRange("99999", "99999"));
+            assertEquals(lowers.length + 1, compactor.size());
+
+            try (var rangeSet = compactor.compact())
+            {
+                var expected = new AlgorythmZipCode().compactRanges(lowers, uppers);
+                expected = PackedRanges.union(expected, new long[] { ZipCodes.checkRange(99999, 99999) });
+                assertArrayEquals(expected, rangeSet.toRangeSet().toPacked());
+                assertTrue(rangeSet.contains(lowers[0]));
+            }
+        }
+    }
+
+    @Test
+    public void compactsAgainAfterMoreRanges() throws Exception
+    {
+        logger.info("Test ranges added after a compaction are merged by the next one, including ranges read from a channel");
+        try (var compactor = new OffHeapZipCodeCompactor())
+        {
+            compactor.add(10, 20);
+            compactor.add(0, 4);
+            try (var rangeSet = compactor.compact())
+            {
+                assertEquals(2, rangeSet.size());
+                assertFalse(rangeSet.contains("00007"));
+            }
+
+            compactor.add(Channels.newChannel(new ByteArrayInputStream("00005,00009\n".getBytes(StandardCharsets.US_ASCII))));
+            try (var rangeSet = compactor.compact())
+            {
+                assertEquals(1, rangeSet.size());
+                assertEquals(0, rangeSet.lower(0));
+                assertEquals(20, rangeSet.upper(0));
+            }
+        }
+    }
+
+    @Test
+    public void copyOutlivesClose()
+    {
+        logger.info("Test an on-heap copy of the compacted ranges stays usable after the compactor and range set are closed");
+        var compactor = new OffHeapZipCodeCompactor();
+        compactor.add(1, 2);
+        var rangeSet = compactor.compact();
+        compactor.close();
+        compactor.close();
+
+        var copy = rangeSet.toRangeSet();
+        rangeSet.close();
+        assertTrue(copy.contains(2));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void closedCompactorRefusesRanges()
+    {
+        logger.info("Test a closed compactor refuses new ranges");
+        var compactor = new OffHeapZipCodeCompactor();
+        compactor.close();
+        compactor.add(3, 4);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void closedRangeSetRefusesLookups()
+    {
+        logger.info("Test a closed range set refuses lookups rather than reading freed memory");
+        try (var compactor = new OffHeapZipCodeCompactor())
+        {
+            compactor.add(1, 2);
+            var rangeSet = compactor.compact();
+            rangeSet.close();
+            rangeSet.contains(2);
+        }
+    }
+
+    @Test
+    public void closeRangeSetWhileReading() throws Exception
+    {
+        logger.info("Test closing a range set under concurrent lookups only ever fails them with IllegalStateException");
+        try (var compactor = new OffHeapZipCodeCompactor())
+        {
+            for (var zip = 0; zip < 1000; zip += 10)
+            {
+                compactor.add(zip, zip + 4);
+            }
+
+            var rangeSet = compactor.compact();
+            var started = new CountDownLatch(4);
+            var executor = Executors.newFixedThreadPool(4);
+            try
+            {
+                var readers = new ArrayList<Future<Integer>>();
+                for (var t = 0; t < 4; t++)
+                {
+                    readers.add(executor.submit(() ->
+                    {
+                        started.countDown();
+                        var lookups = 0;
+                        try
+                        {
+                            while (true)
+                            {
+                                assertTrue(rangeSet.contains(994));
+                                assertFalse(rangeSet.contains(995));
+                                lookups++;
+                            }
+                        }
+                        catch (IllegalStateException e)
+                        {
+                            return lookups;
+                        }
+                    }));
+                }
+
+                started.await();
+                rangeSet.close();
+                for (var reader : readers)
+                {
+                    assertTrue(reader.get(10, TimeUnit.SECONDS) >= 0);
+                }
+            }
+            finally
+            {
+                executor.shutdownNow();
+            }
+        }
+    }
+}
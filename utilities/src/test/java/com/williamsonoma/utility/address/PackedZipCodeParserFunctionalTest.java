@@ -0,0 +1,108 @@
+package com.williamsonoma.utility.address;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import org.junit.Test;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertArrayEquals;
+import org.apache.logging.log4j.Logger;
+import org.apache.logging.log4j.LogManager;
+import com.williamsonoma.api.model.address.PackedZipCodeRange;
+import com.williamsonoma.utility.address.CompactionStrategy.Engine;
+
+/**
+ * Functional tests for compacting ranges packed as contiguous ASCII digits.
+ */
+public class PackedZipCodeParserFunctionalTest
+{
+    private static final Logger logger = LogManager.getLogger(PackedZipCodeParserFunctionalTest.class);
+
+    @Test
+    public void parsesEveryDigitPosition()
+    {
+        logger.info("Test each packed range parses to the same bounds as the string parser");
+        var random = new Random(23);
+        var text = new StringBuilder();
+        var lowers = new int[10000];
+        var uppers = new int[10000];
+        for (var i = 0; i < lowers.length; i++)
+        {
+            lowers[i] = i < 2 ? i * ZipCodes.MAX_ZIP : random.nextInt(ZipCodes.UNIVERSE);
+            uppers[i] = i < 2 ? lowers[i] : Math.min(ZipCodes.MAX_ZIP, lowers[i] + random.nextInt(ZipCodes.UNIVERSE));
+            text.append(ZipCodes.format(lowers[i])).append(ZipCodes.format(uppers[i]));
+        }
+
+        var view = PackedZipCodeParser.view(ByteBuffer.wrap(bytes(text.toString())));
+        assertEquals(lowers.length, PackedZipCodeParser.size(view));
+        for (var i = 0; i < lowers.length; i++)
+        {
+            var range = PackedZipCodeParser.range(view, i);
+            assertEquals(lowers[i], PackedZipCodeRange.lower(range));
+            assertEquals(uppers[i], PackedZipCodeRange.upper(range));
+        }
+
+        var expected = new AlgorythmZipCode().compactRanges(lowers, uppers);
+        assertArrayEquals(expected, new AlgorythmZipCode().compactPackedRanges(bytes(text.toString())));
+        assertArrayEquals(expected, new AlgorythmZipCode(CompactionStrategy.fixed(Engine.ForkJoin)).compactPackedRanges(bytes(text.toString())));
+    }
+
+    @Test
+    public void readsFromPositionToLimit()
+    {
+        logger.info("Test a direct buffer is read from its position to its limit and left unchanged");
+        var buffer = ByteBuffer.allocateDirect(32);
+        buffer.put(bytes("xx00012000200000500009yy")).flip().position(2).limit(22);
+
+        assertArrayEquals(new long[] { ZipCodes.checkRange(5, 9), ZipCodes.checkRange(12, 20) }, new AlgorythmZipCode().compactPackedRanges(buffer));
+        assertEquals(2, buffer.position());
+        assertEquals(22, buffer.limit());
+    }
+
+    @Test
+    public void reportsFirstInvalidIndex()
+    {
+        logger.info("Test every kind of bad byte and a reversed range fail with the index of the first bad range");
+        var valid = "0000000009";
+        for (var bad : new String[] { "0000/00009", "00000:0009", "0000000 09", "00000000\u00b99", "0001000009" })
+        {
+            for (var engine : new Engine[] { Engine.SortMerge, Engine.ForkJoin })
+            {
+                var text = repeat(valid, 300) + bad + repeat(valid, 100) + bad;
+                try
+                {
+                    new AlgorythmZipCode(CompactionStrategy.fixed(engine)).compactPackedRanges(text.getBytes(StandardCharsets.ISO_8859_1));
+                    assertTrue(bad, false);
+                }
+                catch (IllegalArgumentException e)
+                {
+                    assertTrue(e.getMessage(), e.getMessage().endsWith("at index 300."));
+                }
+            }
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void partialRangeRejected()
+    {
+        logger.info("Test packed input that is not a whole number of ranges");
+        new AlgorythmZipCode().compactPackedRanges(bytes("000000000900001"));
+    }
+
+    private static String repeat(String text, int count)
+    {
+        var repeated = new StringBuilder();
+        for (var i = 0; i < count; i++)
+        {
+            repeated.append(text);
+        }
+
+        return repeated.toString();
+    }
+
+    private static byte[] bytes(String text)
+    {
+        return text.getBytes(StandardCharsets.US_ASCII);
+    }
+}
@@ -0,0 +1,155 @@
+package com.williamsonoma.utility.address;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertArrayEquals;
+import org.apache.logging.log4j.Logger;
+import org.apache.logging.log4j.LogManager;
+import com.williamsonoma.api.model.address.ZipCodeRange;
+
+/**
+ * Functional tests for partitioning input by zip code prefix and merging partial results.
+ */
+public class PartialCompactionFunctionalTest
+{
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static final Logger logger = LogManager.getLogger(PartialCompactionFunctionalTest.class);
+
+    @Test
+    public void rangeAcrossSeamIsClippedAndRejoined()
+    {
+        logger.info("Test a range crossing national area seams is clipped into each shard and merged back into one range");
+        var partitioner = ZipCodePartitioner.byNationalArea();
+        var partitions = partitioner.partition(Arrays.asList(
+               new ZipCodeRange("09990", "20010"),
+               new ZipCodeRange("50000", "50005")));
+
+        assertEquals(10, partitions.size());
+        assertEquals("09999", partitions.get(0).get(0).getUpper());
+        assertEquals("10000", partitions.get(1).get(0).getLower());
+        assertEquals("19999", partitions.get(1).get(0).getUpper());
+        assertEquals("20000", partitions.get(2).get(0).getLower());
+        assertTrue(partitions.get(3).isEmpty());
+
+        var zipCode = new AlgorythmZipCode();
+        var merged = PartialCompaction.EMPTY;
+        for (var i = partitions.size() - 1; i >= 0; i--)
+        {
+            merged = zipCode.compactPartial(partitions.get(i)).merge(merged);
+        }
+
+        var ranges = new ArrayList<ZipCodeRange>(merged.toRanges());
+        assertEquals(2, ranges.size());
+        assertEquals("09990", ranges.get(0).getLower());
+        assertEquals("20010", ranges.get(0).getUpper());
+    }
+
+    @Test
+    public void mergeOrderDoesNotMatter()
+    {
+        logger.info("Test partial results of uneven sectional center shards merge to the whole compaction in any order and grouping");
+        var ranges = randomRanges(new Random(19), 30000);
+        var zipCode = new AlgorythmZipCode();
+        var expected = zipCode.compactRanges(toLowers(ranges), toUppers(ranges));
+
+        var partials = new ArrayList<PartialCompaction>();
+        for (var partition : ZipCodePartitioner.bySectionalCenter().partition(ranges, 7))
+        {
+            partials.add(zipCode.compactPartial(partition));
+        }
+
+        var leftFold = PartialCompaction.EMPTY;
+        for (var partial : partials)
+        {
+            leftFold = leftFold.merge(partial);
+        }
+
+        Collections.shuffle(partials, new Random(7));
+        var pairwise = new ArrayList<PartialCompaction>(partials);
+        while (pairwise.size() > 1)
+        {
+            pairwise.add(pairwise.remove(0).merge(pairwise.remove(0)));
+        }
+
+        assertArrayEquals(expected, leftFold.toPacked());
+        assertArrayEquals(expected, pairwise.get(0).toPacked());
+    }
+
+    @Test
+    public void separateJvmsProduceMergeablePartials() throws Exception
+    {
+        logger.info("Test shards compacted in separate JVMs merge to the same result as one JVM");
+        var shards = 3;
+        var ranges = randomRanges(new Random(190), 20000);
+        var text = new StringBuilder();
+        for (var range : ranges)
+        {
+            text.append(range.getLower()).append(',').append(range.getUpper()).append('\n');
+        }
+
+        var input = folder.newFile("ranges.csv").toPath();
+        Files.write(input, text.toString().getBytes(StandardCharsets.US_ASCII));
+
+        var java = Paths.get(System.getProperty("java.home"), "bin", "java").toString();
+        var nodes = new ArrayList<Process>();
+        var outputs = new ArrayList<File>();
+        for (var shard = 0; shard < shards; shard++)
+        {
+            var output = new File(folder.getRoot(), "partial-" + shard + ".bin");
+            outputs.add(output);
+            nodes.add(new ProcessBuilder(java, "-cp", System.getProperty("java.class.path"), PartialCompactionNode.class.getName(),
+                    input.toString(), output.toString(), String.valueOf(shard), String.valueOf(shards))
+                .inheritIO()
+                .start());
+        }
+
+        var merged = PartialCompaction.EMPTY;
+        for (var shard = 0; shard < shards; shard++)
+        {
+            assertTrue(nodes.get(shard).waitFor(60, TimeUnit.SECONDS));
+            assertEquals(0, nodes.get(shard).exitValue());
+            merged = merged.merge(PartialCompaction.decode(Files.readAllBytes(outputs.get(shard).toPath())));
+        }
+
+        assertArrayEquals(new AlgorythmZipCode().compactRanges(toLowers(ranges), toUppers(ranges)), merged.toPacked());
+    }
+
+    private static List<ZipCodeRange> randomRanges(Random random, int count)
+    {
+        var ranges = new ArrayList<ZipCodeRange>(count);
+        for (var i = 0; i < count; i++)
+        {
+            var lower = random.nextInt(ZipCodes.UNIVERSE);
+            var upper = Math.min(ZipCodes.MAX_ZIP, lower + random.nextInt(i % 100 == 0 ? 5000 : 8));
+            ranges.add(ZipCodes.toRange(ZipCodes.checkRange(lower, upper)));
+        }
+
+        return ranges;
+    }
+
+    private static int[] toLowers(List<ZipCodeRange> ranges)
+    {
+        return ranges.stream().mapToInt(range -> ZipCodes.parse(range.getLower())).toArray();
+    }
+
+    private static int[] toUppers(List<ZipCodeRange> ranges)
+    {
+        return ranges.stream().mapToInt(range -> ZipCodes.parse(range.getUpper())).toArray();
+    }
+}
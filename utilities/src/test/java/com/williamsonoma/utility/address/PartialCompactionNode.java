@@ -0,0 +1,33 @@
+package com.williamsonoma.utility.address;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import com.williamsonoma.api.model.address.ZipCodeRange;
+
+/**
+ * One node of a scaled-out compaction in PartialCompactionFunctionalTest.
+ *
+ * Arguments: input file, output file, shard, shard count.
+ */
+public class PartialCompactionNode
+{
+    public static void main(String[] args) throws IOException
+    {
+        var shard = Integer.parseInt(args[2]);
+        var shards = Integer.parseInt(args[3]);
+
+        var ranges = new ArrayList<ZipCodeRange>();
+        try (var channel = FileChannel.open(Paths.get(args[0]), StandardOpenOption.READ))
+        {
+            ZipCodeRangeReader.read(channel, (lower, upper) -> ranges.add(new ZipCodeRange(ZipCodes.format(lower), ZipCodes.format(upper))));
+        }
+
+        var partitions = ZipCodePartitioner.bySectionalCenter().partition(ranges, shards);
+        var partial = new AlgorythmZipCode().compactPartial(partitions.get(shard));
+        Files.write(Paths.get(args[1]), partial.encode());
+    }
+}
@@ -0,0 +1,155 @@
+package com.williamsonoma.utility.address;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Test;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+import org.apache.logging.log4j.Logger;
+import org.apache.logging.log4j.LogManager;
+import com.williamsonoma.api.model.address.ZipCodeRange;
+import com.williamsonoma.api.utility.address.ZipCode;
+
+/**
+ * Functional tests for coalescing concurrent identical compactRanges calls.
+ */
+public class SingleFlightZipCodeFunctionalTest
+{
+    private static final Logger logger = LogManager.getLogger(SingleFlightZipCodeFunctionalTest.class);
+
+    private static final int CALLERS = 8;
+
+    @Test
+    public void concurrentCallersShareOneComputation() throws Exception
+    {
+        logger.info("Test concurrent callers with the same ranges in any order share one computation");
+        var delegate = new BlockingZipCode(new AlgorythmZipCode());
+        var zipCode = new SingleFlightZipCode(delegate);
+
+        var executor = Executors.newFixedThreadPool(CALLERS);
+        var results = new ArrayList<Future<Collection<ZipCodeRange>>>();
+        for (var i = 0; i < CALLERS; i++)
+        {
+            var ranges = new ArrayList<ZipCodeRange>(Arrays.asList(
+                   new ZipCodeRange("00009", "00011"),
+                   new ZipCodeRange("00000", "00005"),
+                   new ZipCodeRange("00003", "00007")));
+            Collections.rotate(ranges, i);
+            results.add(executor.submit(() -> zipCode.compactRanges(ranges)));
+        }
+
+        awaitShared(zipCode, CALLERS - 1);
+        delegate.release.countDown();
+
+        var first = results.get(0).get(10, TimeUnit.SECONDS);
+        for (var result : results)
+        {
+            assertSame(first, result.get(10, TimeUnit.SECONDS));
+        }
+
+        assertEquals(1, delegate.calls.get());
+        assertEquals(1, zipCode.getComputedCount());
+        assertEquals(2, first.size());
+        assertEquals(0, zipCode.getInFlightCount());
+        executor.shutdown();
+    }
+
+    @Test
+    public void failureReachesEveryCaller() throws Exception
+    {
+        logger.info("Test a failed computation is rethrown to every waiting caller");
+        var delegate = new BlockingZipCode(null);
+        var zipCode = new SingleFlightZipCode(delegate);
+
+        var executor = Executors.newFixedThreadPool(CALLERS);
+        var results = new ArrayList<Future<long[]>>();
+        for (var i = 0; i < CALLERS; i++)
+        {
+            results.add(executor.submit(() -> zipCode.compactRanges(new int[] { 0, 7 }, new int[] { 5, 9 })));
+        }
+
+        awaitShared(zipCode, CALLERS - 1);
+        delegate.release.countDown();
+
+        for (var result : results)
+        {
+            try
+            {
+                result.get(10, TimeUnit.SECONDS);
+                fail("expected the delegate failure");
+            }
+            catch (ExecutionException e)
+            {
+                assertTrue(e.getCause() instanceof IllegalStateException);
+            }
+        }
+
+        assertEquals(1, delegate.calls.get());
+        assertEquals(0, zipCode.getInFlightCount());
+        executor.shutdown();
+    }
+
+    private static void awaitShared(SingleFlightZipCode zipCode, int callers) throws InterruptedException
+    {
+        var deadline = System.currentTimeMillis() + 10000;
+        while (zipCode.getSharedCount() < callers && System.currentTimeMillis() < deadline)
+        {
+            Thread.sleep(5);
+        }
+
+        assertEquals(callers, zipCode.getSharedCount());
+    }
+
+    // Holds every call until released, then compacts with the target or fails when there is none.
+    private static class BlockingZipCode implements ZipCode
+    {
+        private final ZipCode target;
+        private final CountDownLatch release = new CountDownLatch(1);
+        private final AtomicInteger calls = new AtomicInteger();
+
+        BlockingZipCode(ZipCode target)
+        {
+            this.target = target;
+        }
+
+        public Collection<ZipCodeRange> compactRanges(Collection<ZipCodeRange> ranges)
+        {
+            block();
+            return target.compactRanges(ranges);
+        }
+
+        public long[] compactRanges(int[] lowers, int[] uppers)
+        {
+            block();
+            return target.compactRanges(lowers, uppers);
+        }
+
+        private void block()
+        {
+            calls.incrementAndGet();
+            try
+            {
+                release.await();
+            }
+            catch (InterruptedException e)
+            {
+                Thread.currentThread().interrupt();
+            }
+
+            if (target == null)
+            {
+                throw new IllegalStateException("no target");
+            }
+        }
+    }
+}
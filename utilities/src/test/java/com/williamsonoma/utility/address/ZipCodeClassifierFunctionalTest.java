@@ -0,0 +1,94 @@
+package com.williamsonoma.utility.address;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+import org.junit.Test;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertArrayEquals;
+import org.apache.logging.log4j.Logger;
+import org.apache.logging.log4j.LogManager;
+import com.williamsonoma.api.model.address.ZipCodeRange;
+
+/**
+ * Functional tests for classifying batches of zip codes against a range set.
+ */
+public class ZipCodeClassifierFunctionalTest
+{
+    private static final Logger logger = LogManager.getLogger(ZipCodeClassifierFunctionalTest.class);
+
+    @Test
+    public void flagsMatchContains()
+    {
+        logger.info("Test sorted, unsorted and partly sorted batches are flagged as contains() would, serially and in parallel");
+        var random = new Random(25);
+        var ranges = new ArrayList<ZipCodeRange>();
+        for (var i = 0; i < 3000; i++)
+        {
+            var lower = random.nextInt(ZipCodes.UNIVERSE);
+            ranges.add(new ZipCodeRange(ZipCodes.format(lower), ZipCodes.format(Math.min(ZipCodes.MAX_ZIP, lower + random.nextInt(20)))));
+        }
+
+        var rangeSet = ZipCodeRangeSet.of(new AlgorythmZipCode().compactRanges(ranges));
+        var serial = new ZipCodeClassifier(rangeSet, ForkJoinPool.commonPool(), Integer.MAX_VALUE);
+        var parallel = new ZipCodeClassifier(rangeSet, ForkJoinPool.commonPool(), 1);
+
+        var unsorted = random.ints(500001, 0, ZipCodes.UNIVERSE).toArray();
+        var sorted = unsorted.clone();
+        Arrays.sort(sorted);
+        var partlySorted = sorted.clone();
+        partlySorted[300000] = 0;
+
+        for (var zips : new int[][] { unsorted, sorted, partlySorted })
+        {
+            var flags = serial.classify(zips);
+            assertArrayEquals(flags, parallel.classify(zips));
+            for (var i = 0; i < zips.length; i++)
+            {
+                assertEquals(rangeSet.contains(zips[i]), ZipCodeClassifier.isSet(flags, i));
+            }
+        }
+    }
+
+    @Test
+    public void classifiesStreams()
+    {
+        logger.info("Test a stream of zip codes is classified in stream order");
+        var rangeSet = ZipCodeRangeSet.of(Arrays.asList(new ZipCodeRange("00010", "00019")));
+        var flags = new ZipCodeClassifier(rangeSet).classify(IntStream.of(5, 10, 19, 20, 15));
+
+        assertEquals(1, flags.length);
+        assertFalse(ZipCodeClassifier.isSet(flags, 0));
+        assertTrue(ZipCodeClassifier.isSet(flags, 1));
+        assertTrue(ZipCodeClassifier.isSet(flags, 2));
+        assertFalse(ZipCodeClassifier.isSet(flags, 3));
+        assertTrue(ZipCodeClassifier.isSet(flags, 4));
+        assertEquals(0, new ZipCodeClassifier(rangeSet).classify(new int[0]).length);
+    }
+
+    @Test
+    public void reportsFirstInvalidIndex()
+    {
+        logger.info("Test an invalid zip code fails with the index of the first one, however the batch was split");
+        var zips = new int[200000];
+        zips[150000] = -1;
+        zips[190000] = ZipCodes.UNIVERSE;
+
+        for (var threshold : new int[] { 1, Integer.MAX_VALUE })
+        {
+            try
+            {
+                new ZipCodeClassifier(ZipCodeRangeSet.EMPTY, ForkJoinPool.commonPool(), threshold).classify(zips);
+                assertTrue(false);
+            }
+            catch (IllegalArgumentException e)
+            {
+                assertTrue(e.getMessage(), e.getMessage().endsWith("at index 150000."));
+            }
+        }
+    }
+}
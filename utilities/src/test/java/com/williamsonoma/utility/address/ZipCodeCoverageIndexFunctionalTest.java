@@ -0,0 +1,96 @@
+package com.williamsonoma.utility.address;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Random;
+import org.junit.Test;
+import static org.junit.Assert.assertEquals;
+import org.apache.logging.log4j.Logger;
+import org.apache.logging.log4j.LogManager;
+import com.williamsonoma.api.model.address.ZipCodeRange;
+
+/**
+ * Functional tests for coverage counts, prefix fractions and gaps of a compacted range set.
+ */
+public class ZipCodeCoverageIndexFunctionalTest
+{
+    private static final Logger logger = LogManager.getLogger(ZipCodeCoverageIndexFunctionalTest.class);
+
+    @Test
+    public void countsMatchContains()
+    {
+        logger.info("Test range counts agree with counting contains() one zip code at a time");
+        var random = new Random(24);
+        var ranges = new ArrayList<ZipCodeRange>();
+        for (var i = 0; i < 2000; i++)
+        {
+            var lower = random.nextInt(ZipCodes.UNIVERSE);
+            ranges.add(new ZipCodeRange(ZipCodes.format(lower), ZipCodes.format(Math.min(ZipCodes.MAX_ZIP, lower + random.nextInt(30)))));
+        }
+
+        var rangeSet = ZipCodeRangeSet.of(new AlgorythmZipCode().compactRanges(ranges));
+        var index = ZipCodeCoverageIndex.of(rangeSet);
+
+        var total = 0;
+        for (var zip = 0; zip <= ZipCodes.MAX_ZIP; zip++)
+        {
+            total += rangeSet.contains(zip) ? 1 : 0;
+        }
+
+        assertEquals(total, index.getTotal());
+        assertEquals(total, index.count(0, ZipCodes.MAX_ZIP));
+
+        for (var i = 0; i < 1000; i++)
+        {
+            var lower = random.nextInt(ZipCodes.UNIVERSE);
+            var upper = Math.min(ZipCodes.MAX_ZIP, lower + random.nextInt(5000));
+            var expected = 0;
+            for (var zip = lower; zip <= upper; zip++)
+            {
+                expected += rangeSet.contains(zip) ? 1 : 0;
+            }
+
+            assertEquals(expected, index.count(lower, upper));
+        }
+    }
+
+    @Test
+    public void prefixFractionsAndGaps()
+    {
+        logger.info("Test prefix fractions and that gaps come back longest first");
+        var rangeSet = ZipCodeRangeSet.of(Arrays.asList(
+               new ZipCodeRange("00100", "00149"),
+               new ZipCodeRange("00200", "00299"),
+               new ZipCodeRange("00310", "00319"),
+               new ZipCodeRange("99990", "99999")));
+        var index = ZipCodeCoverageIndex.of(rangeSet);
+
+        assertEquals(0.0, index.fraction(0), 0.0);
+        assertEquals(0.5, index.fraction(1), 0.0);
+        assertEquals(1.0, index.fraction("002"), 0.0);
+        assertEquals(0.1, index.fraction("999"), 0.0);
+        assertEquals(116, index.count(new ZipCodeRange("00140", "00315")));
+
+        assertEquals(4, index.getGapCount());
+        var gaps = index.topGaps(3).toArray(new ZipCodeRange[0]);
+        assertEquals(3, gaps.length);
+        assertEquals("00320", gaps[0].getLower());
+        assertEquals("99989", gaps[0].getUpper());
+        assertEquals("00000", gaps[1].getLower());
+        assertEquals("00099", gaps[1].getUpper());
+        assertEquals("00150", gaps[2].getLower());
+        assertEquals("00199", gaps[2].getUpper());
+        assertEquals(4, index.topGaps(10).size());
+
+        gaps = ZipCodeCoverageIndex.of(ZipCodeRangeSet.EMPTY).topGaps(1).toArray(new ZipCodeRange[0]);
+        assertEquals("00000", gaps[0].getLower());
+        assertEquals("99999", gaps[0].getUpper());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void prefixMustBeThreeDigits()
+    {
+        logger.info("Test a prefix that is not 3 digits");
+        ZipCodeCoverageIndex.of(ZipCodeRangeSet.EMPTY).fraction(1000);
+    }
+}
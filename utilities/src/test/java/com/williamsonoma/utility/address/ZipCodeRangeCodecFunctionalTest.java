@@ -0,0 +1,79 @@
+package com.williamsonoma.utility.address;
+
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Random;
+import org.junit.Test;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.assertArrayEquals;
+import org.apache.logging.log4j.Logger;
+import org.apache.logging.log4j.LogManager;
+import com.williamsonoma.api.model.address.PackedZipCodeRange;
+import com.williamsonoma.api.model.address.ZipCodeRangeCodec;
+
+/**
+ * Functional tests for the delta encoded wire format for compacted ranges.
+ */
+public class ZipCodeRangeCodecFunctionalTest
+{
+    private static final Logger logger = LogManager.getLogger(ZipCodeRangeCodecFunctionalTest.class);
+
+    @Test
+    public void roundTripIsAnOrderOfMagnitudeSmaller() throws IOException
+    {
+        logger.info("Test compacted ranges survive a round trip and encode far smaller than Java serialization");
+        var random = new Random(18);
+        var lowers = new int[20000];
+        var uppers = new int[20000];
+        for (var i = 0; i < lowers.length; i++)
+        {
+            lowers[i] = random.nextInt(ZipCodes.UNIVERSE);
+            uppers[i] = Math.min(ZipCodes.MAX_ZIP, lowers[i] + random.nextInt(3));
+        }
+
+        var packedRanges = new AlgorythmZipCode().compactRanges(lowers, uppers);
+        var encoded = ZipCodeRangeCodec.encode(packedRanges);
+        assertArrayEquals(packedRanges, ZipCodeRangeCodec.decode(encoded));
+
+        var serialized = new ByteArrayOutputStream();
+        try (var out = new ObjectOutputStream(serialized))
+        {
+            out.writeObject(new ArrayList<Object>(ZipCodeRangeSet.of(packedRanges).toRanges()));
+        }
+
+        logger.info("{} ranges, {} bytes encoded, {} bytes serialized", packedRanges.length, encoded.length, serialized.size());
+        assertTrue(encoded.length * 10 < serialized.size());
+    }
+
+    @Test
+    public void roundTripZipPlusFourAndEmpty() throws IOException
+    {
+        logger.info("Test ZIP+4 bounds at the ends of the key space and an empty result survive a round trip");
+        var packedRanges = new long[] {
+               PackedZipCodeRange.pack(0, 0),
+               PackedZipCodeRange.pack(1, 123456789),
+               PackedZipCodeRange.pack(999999990, ZipCodes.MAX_ZIP_PLUS_FOUR) };
+
+        assertArrayEquals(packedRanges, ZipCodeRangeCodec.decode(ZipCodeRangeCodec.encode(packedRanges)));
+        assertArrayEquals(new long[0], ZipCodeRangeCodec.decode(ZipCodeRangeCodec.encode(new long[0])));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void overlappingRangesRejected()
+    {
+        logger.info("Test encoding overlapping ranges expecting IllegalArgumentException");
+        ZipCodeRangeCodec.encode(new long[] { PackedZipCodeRange.pack(0, 5), PackedZipCodeRange.pack(5, 9) });
+    }
+
+    @Test(expected = EOFException.class)
+    public void truncatedPayloadRejected() throws IOException
+    {
+        logger.info("Test decoding a payload without its end marker expecting EOFException");
+        var encoded = ZipCodeRangeCodec.encode(new long[] { PackedZipCodeRange.pack(3, 7), PackedZipCodeRange.pack(20, 30) });
+        ZipCodeRangeCodec.decode(Arrays.copyOf(encoded, encoded.length - 1));
+    }
+}
@@ -0,0 +1,202 @@
+package com.williamsonoma.utility.address;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertEquals;
+import org.apache.logging.log4j.Logger;
+import org.apache.logging.log4j.LogManager;
+import com.williamsonoma.api.model.address.ZipCodeRange;
+
+/**
+ * Functional tests for writing and mapping compacted range files.
+ */
+public class ZipCodeRangeFileFunctionalTest
+{
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static final Logger logger = LogManager.getLogger(ZipCodeRangeFileFunctionalTest.class);
+
+    @Test
+    public void writeAndMapRandomRanges() throws IOException
+    {
+        logger.info("Test mapped lookups match the range set that was written");
+        var random = new Random(3);
+        var lowers = new int[20000];
+        var uppers = new int[20000];
+        for (var i = 0; i < lowers.length; i++)
+        {
+            lowers[i] = random.nextInt(ZipCodes.UNIVERSE - 3);
+            uppers[i] = lowers[i] + random.nextInt(3);
+        }
+
+        var ranges = ZipCodeRangeSet.of(new FixedUniverseZipCode().compactRanges(lowers, uppers));
+        var path = folder.getRoot().toPath().resolve("restrictions.zcr");
+        ZipCodeRangeFile.write(path, ranges);
+
+        var mapped = ZipCodeRangeFile.map(path);
+
+        assertEquals(ranges.size(), mapped.size());
+        assertEquals(ranges, mapped.toRangeSet());
+        for (var zip = 0; zip < ZipCodes.UNIVERSE; zip++)
+        {
+            assertEquals(ranges.contains(zip), mapped.contains(zip));
+        }
+    }
+
+    @Test
+    public void writeAndMapEmpty() throws IOException
+    {
+        logger.info("Test an empty range set round trips through a range file");
+        var path = folder.getRoot().toPath().resolve("empty.zcr");
+        ZipCodeRangeFile.write(path, ZipCodeRangeSet.EMPTY);
+
+        var mapped = ZipCodeRangeFile.map(path);
+
+        assertTrue(mapped.isEmpty());
+        assertFalse(mapped.contains(0));
+    }
+
+    @Test
+    public void rewriteReplacesFile() throws IOException
+    {
+        logger.info("Test rewriting a range file replaces its contents");
+        var path = folder.getRoot().toPath().resolve("replaced.zcr");
+        ZipCodeRangeFile.write(path, ZipCodeRangeSet.of(Arrays.asList(new ZipCodeRange("00000", "00005"))));
+        ZipCodeRangeFile.write(path, ZipCodeRangeSet.of(Arrays.asList(new ZipCodeRange("00007", "00009"))));
+
+        var mapped = ZipCodeRangeFile.map(path);
+
+        assertEquals(1, mapped.size());
+        assertEquals("00007", mapped.toRanges().iterator().next().getLower());
+        assertEquals(1, folder.getRoot().list().length);
+    }
+
+    @Test(expected = IOException.class)
+    public void mapCorruptFile() throws IOException
+    {
+        logger.info("Test mapping a file that is not a range file expecting IOException");
+        var path = folder.getRoot().toPath().resolve("corrupt.zcr");
+        Files.write(path, "00000,00005\n00007,00009\n".getBytes("US-ASCII"));
+
+        ZipCodeRangeFile.map(path);
+    }
+
+    @Test(expected = IOException.class)
+    public void mapRangesOutOfOrder() throws IOException
+    {
+        logger.info("Test mapping a range file whose ranges are out of order expecting IOException");
+        var buffer = ByteBuffer.allocate(ZipCodeRangeFile.HEADER_SIZE + 2 * ZipCodeRangeFile.RANGE_SIZE).order(ZipCodeRangeFile.ORDER);
+        buffer.putInt(ZipCodeRangeFile.MAGIC).putInt(ZipCodeRangeFile.VERSION).putInt(2).putInt(0);
+        buffer.putInt(7).putInt(9).putInt(0).putInt(5);
+
+        var path = folder.getRoot().toPath().resolve("unsorted.zcr");
+        Files.write(path, buffer.array());
+
+        ZipCodeRangeFile.map(path);
+    }
+
+    @Test(expected = IOException.class)
+    public void mapRangesOutsideUniverse() throws IOException
+    {
+        logger.info("Test mapping a range file with a zip code above 99999 expecting IOException");
+        var buffer = ByteBuffer.allocate(ZipCodeRangeFile.HEADER_SIZE + ZipCodeRangeFile.RANGE_SIZE).order(ZipCodeRangeFile.ORDER);
+        buffer.putInt(ZipCodeRangeFile.MAGIC).putInt(ZipCodeRangeFile.VERSION).putInt(1).putInt(0);
+        buffer.putInt(0).putInt(ZipCodes.UNIVERSE);
+
+        var path = folder.getRoot().toPath().resolve("universe.zcr");
+        Files.write(path, buffer.array());
+
+        ZipCodeRangeFile.map(path);
+    }
+
+    @Test
+    public void closeReleasesMapping() throws IOException
+    {
+        logger.info("Test a closed mapping refuses lookups and its file can be rewritten");
+        var path = folder.getRoot().toPath().resolve("closed.zcr");
+        ZipCodeRangeFile.write(path, ZipCodeRangeSet.of(Arrays.asList(new ZipCodeRange("00000", "00005"))));
+
+        var mapped = ZipCodeRangeFile.map(path);
+        assertTrue(mapped.contains(3));
+        mapped.close();
+        mapped.close();
+
+        try
+        {
+            mapped.contains(3);
+            assertTrue(false);
+        }
+        catch (IllegalStateException e)
+        {
+            logger.info("expected: {}", e.getMessage());
+        }
+
+        ZipCodeRangeFile.write(path, ZipCodeRangeSet.EMPTY);
+        try (var remapped = ZipCodeRangeFile.map(path))
+        {
+            assertTrue(remapped.isEmpty());
+        }
+    }
+
+    @Test
+    public void closeWhileReading() throws Exception
+    {
+        logger.info("Test closing a mapping under concurrent lookups only ever fails them with IllegalStateException");
+        var path = folder.getRoot().toPath().resolve("shared.zcr");
+        ZipCodeRangeFile.write(path, ZipCodeRangeSet.of(Arrays.asList(new ZipCodeRange("00100", "00199"))));
+
+        var mapped = ZipCodeRangeFile.map(path);
+        var started = new CountDownLatch(4);
+        var executor = Executors.newFixedThreadPool(4);
+        try
+        {
+            var readers = new ArrayList<Future<Integer>>();
+            for (var t = 0; t < 4; t++)
+            {
+                readers.add(executor.submit(() ->
+                {
+                    started.countDown();
+                    var lookups = 0;
+                    try
+                    {
+                        while (true)
+                        {
+                            assertTrue(mapped.contains(150));
+                            assertEquals(199, mapped.upper(0));
+                            lookups++;
+                        }
+                    }
+                    catch (IllegalStateException e)
+                    {
+                        return lookups;
+                    }
+                }));
+            }
+
+            started.await();
+            mapped.close();
+            for (var reader : readers)
+            {
+                assertTrue(reader.get(10, TimeUnit.SECONDS) >= 0);
+            }
+        }
+        finally
+        {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,183 @@
+package com.williamsonoma.utility.address;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import org.junit.Test;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertEquals;
+import org.apache.logging.log4j.Logger;
+import org.apache.logging.log4j.LogManager;
+import com.williamsonoma.api.model.address.ZipCodeRange;
+
+/**
+ * Functional tests for publishing compacted ranges asynchronously.
+ */
+public class ZipCodeRangePublisherFunctionalTest
+{
+    private static final Logger logger = LogManager.getLogger(ZipCodeRangePublisherFunctionalTest.class);
+
+    @Test
+    public void publishesSameRangesAsCompactRanges() throws InterruptedException
+    {
+        logger.info("Test the published ranges match the blocking compactRanges result, requesting one at a time");
+        var random = new Random(16);
+        var ranges = new ArrayList<ZipCodeRange>();
+        for (var i = 0; i < 20000; i++)
+        {
+            var lower = random.nextInt(ZipCodes.UNIVERSE);
+            ranges.add(ZipCodes.toRange(ZipCodes.checkRange(lower, Math.min(ZipCodes.MAX_ZIP, lower + random.nextInt(5)))));
+        }
+
+        var zipCode = new AlgorythmZipCode();
+        var subscriber = new CollectingSubscriber(1);
+        zipCode.compactRangesAsync(ranges).subscribe(subscriber);
+
+        assertTrue(subscriber.done.await(10, TimeUnit.SECONDS));
+        assertNull(subscriber.error);
+
+        var expected = new ArrayList<ZipCodeRange>(zipCode.compactRanges(ranges));
+        assertEquals(expected.size(), subscriber.received.size());
+        for (var i = 0; i < expected.size(); i++)
+        {
+            assertEquals(expected.get(i).getLower(), subscriber.received.get(i).getLower());
+            assertEquals(expected.get(i).getUpper(), subscriber.received.get(i).getUpper());
+        }
+    }
+
+    @Test
+    public void invalidRangeSignalsError() throws InterruptedException
+    {
+        logger.info("Test an invalid zip code is signalled through onError before any range is published");
+        var subscriber = new CollectingSubscriber(Long.MAX_VALUE);
+        new AlgorythmZipCode().compactRangesAsync(Arrays.asList(
+               new ZipCodeRange("00000", "00005"),
+               new ZipCodeRange("0007A", "00009"))).subscribe(subscriber);
+
+        assertTrue(subscriber.done.await(10, TimeUnit.SECONDS));
+        assertTrue(subscriber.error instanceof IllegalArgumentException);
+        assertTrue(subscriber.received.isEmpty());
+    }
+
+    @Test
+    public void slowSubscriberHoldsBackProducer() throws InterruptedException
+    {
+        logger.info("Test a subscriber that stops requesting only receives what it asked for, then can cancel");
+        var ranges = new ArrayList<ZipCodeRange>();
+        for (var zip = 0; zip < ZipCodes.MAX_ZIP; zip += 2)
+        {
+            ranges.add(ZipCodes.toRange(ZipCodes.checkRange(zip, zip)));
+        }
+
+        var subscriber = new CollectingSubscriber(0);
+        new ZipCodeRangePublisher(ranges, ForkJoinPool.commonPool(), 4).subscribe(subscriber);
+        assertTrue(subscriber.subscribed.await(10, TimeUnit.SECONDS));
+
+        subscriber.subscription.request(3);
+        Thread.sleep(200);
+        assertEquals(3, subscriber.received.size());
+
+        subscriber.subscription.cancel();
+    }
+
+    @Test
+    public void singleThreadExecutorsDrainFullBuffer() throws InterruptedException
+    {
+        logger.info("Test a producer on its own single thread executor keeps publishing past a full buffer");
+        var ranges = new ArrayList<ZipCodeRange>();
+        for (var zip = 0; zip < 1000; zip += 2)
+        {
+            ranges.add(ZipCodes.toRange(ZipCodes.checkRange(zip, zip)));
+        }
+
+        var producer = Executors.newSingleThreadExecutor();
+        var delivery = Executors.newSingleThreadExecutor();
+        try
+        {
+            var subscriber = new CollectingSubscriber(1);
+            new ZipCodeRangePublisher(ranges, producer, delivery, 2).subscribe(subscriber);
+
+            assertTrue(subscriber.done.await(10, TimeUnit.SECONDS));
+            assertNull(subscriber.error);
+            assertEquals(500, subscriber.received.size());
+        }
+        finally
+        {
+            producer.shutdownNow();
+            delivery.shutdownNow();
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void sharedExecutorRejected()
+    {
+        logger.info("Test one plain executor cannot both produce and deliver");
+        var executor = Executors.newSingleThreadExecutor();
+        try
+        {
+            new ZipCodeRangePublisher(Collections.<ZipCodeRange>emptyList(), executor, executor, 2);
+        }
+        finally
+        {
+            executor.shutdownNow();
+        }
+    }
+
+    private static class CollectingSubscriber implements Flow.Subscriber<ZipCodeRange>
+    {
+        private final long batch;
+        private final List<ZipCodeRange> received = Collections.synchronizedList(new ArrayList<ZipCodeRange>());
+        private final CountDownLatch subscribed = new CountDownLatch(1);
+        private final CountDownLatch done = new CountDownLatch(1);
+        private volatile Flow.Subscription subscription;
+        private volatile Throwable error;
+
+        CollectingSubscriber(long batch)
+        {
+            this.batch = batch;
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription)
+        {
+            this.subscription = subscription;
+            if (batch > 0)
+            {
+                subscription.request(batch);
+            }
+
+            subscribed.countDown();
+        }
+
+        @Override
+        public void onNext(ZipCodeRange range)
+        {
+            received.add(range);
+            if (batch == 1)
+            {
+                subscription.request(1);
+            }
+        }
+
+        @Override
+        public void onError(Throwable throwable)
+        {
+            error = throwable;
+            done.countDown();
+        }
+
+        @Override
+        public void onComplete()
+        {
+            done.countDown();
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.williamsonoma.utility.address;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Random;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import static org.junit.Assert.assertEquals;
+import org.apache.logging.log4j.Logger;
+import org.apache.logging.log4j.LogManager;
+import com.williamsonoma.api.model.address.ZipCodeRange;
+
+/**
+ * Functional tests for streaming range files into the compactor.
+ */
+public class ZipCodeRangeReaderFunctionalTest
+{
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static final Logger logger = LogManager.getLogger(ZipCodeRangeReaderFunctionalTest.class);
+
+    @Test
+    public void compactMixedLayouts() throws IOException
+    {
+        logger.info("Test compacting comma, pipe, tab and fixed width lines with blank lines and CRLF");
+        var rangeSet = compact("00009,00011\r\n0000000005\n\n00003|00007\n00020\t00025\n00030 , 00031");
+
+        assertEquals(ZipCodeRangeSet.of(Arrays.asList(
+               new ZipCodeRange("00000", "00007"),
+               new ZipCodeRange("00009", "00011"),
+               new ZipCodeRange("00020", "00025"),
+               new ZipCodeRange("00030", "00031"))), rangeSet);
+    }
+
+    @Test
+    public void compactFileLargerThanBuffer() throws IOException
+    {
+        logger.info("Test compacting a file whose lines straddle read buffer boundaries");
+        var random = new Random(5);
+        var lowers = new int[50000];
+        var uppers = new int[50000];
+        var text = new StringBuilder();
+        for (var i = 0; i < lowers.length; i++)
+        {
+            lowers[i] = random.nextInt(ZipCodes.UNIVERSE - 10);
+            uppers[i] = lowers[i] + random.nextInt(10);
+            text.append(String.format("%05d,%05d\n", lowers[i], uppers[i]));
+        }
+
+        var path = folder.getRoot().toPath().resolve("ranges.csv");
+        Files.write(path, text.toString().getBytes(StandardCharsets.US_ASCII));
+
+        assertEquals(ZipCodeRangeSet.of(new FixedUniverseZipCode().compactRanges(lowers, uppers)), ZipCodeRangeReader.compact(path));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void compactShortZipCode() throws IOException
+    {
+        logger.info("Test a four digit zip code expecting IllegalArgumentException");
+        compact("00000,00005\n0001,00009\n");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void compactMissingUpperBound() throws IOException
+    {
+        logger.info("Test a line with only a lower bound expecting IllegalArgumentException");
+        compact("00000,00005\n00007\n");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void compactLowerGreaterThanUpperBound() throws IOException
+    {
+        logger.info("Test lower bound greater than upper bound expecting IllegalArgumentException");
+        compact("00003,00002\n");
+    }
+
+    private ZipCodeRangeSet compact(String text) throws IOException
+    {
+        var channel = Channels.newChannel(new ByteArrayInputStream(text.getBytes(StandardCharsets.US_ASCII)));
+        return ZipCodeRangeReader.compact(channel);
+    }
+}
@@ -0,0 +1,138 @@
+package com.williamsonoma.utility.address;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.Test;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertEquals;
+import org.apache.logging.log4j.Logger;
+import org.apache.logging.log4j.LogManager;
+import com.williamsonoma.api.model.address.ZipCodeRange;
+
+/**
+ * Functional tests for publishing and reading named restriction sets.
+ */
+public class ZipCodeRangeRegistryFunctionalTest
+{
+    private static final Logger logger = LogManager.getLogger(ZipCodeRangeRegistryFunctionalTest.class);
+
+    @Test
+    public void publishCompactsAndVersions()
+    {
+        logger.info("Test publishing compacts raw ranges and numbers each version of a name");
+        var registry = new ZipCodeRangeRegistry(new AlgorythmZipCode());
+        assertNull(registry.get("carrierA"));
+        assertFalse(registry.contains("carrierA", 5));
+
+        var first = registry.publish("carrierA", Arrays.asList(
+               new ZipCodeRange("00003", "00006"),
+               new ZipCodeRange("00000", "00002")));
+        assertEquals(1, first.getNumber());
+        assertEquals(1, first.getRangeSet().size());
+        assertTrue(registry.contains("carrierA", 5));
+
+        var second = registry.publish("carrierA", ZipCodeRangeSet.EMPTY);
+        assertEquals(2, second.getNumber());
+        assertFalse(registry.contains("carrierA", 5));
+
+        // A reader still holding the first version keeps seeing it
+        assertTrue(first.getRangeSet().contains(5));
+        assertEquals(2, registry.getPublishCount());
+        assertTrue(registry.getMaxPublishNanos() > 0);
+
+        assertEquals(second, registry.remove("carrierA"));
+        assertNull(registry.get("carrierA"));
+    }
+
+    @Test
+    public void numberingSurvivesRemove()
+    {
+        logger.info("Test a set published again after remove() carries on from its last version number");
+        var registry = new ZipCodeRangeRegistry(new AlgorythmZipCode());
+        registry.publish("carrierD", ZipCodeRangeSet.EMPTY);
+        registry.publish("carrierD", ZipCodeRangeSet.EMPTY);
+
+        assertEquals(2, registry.remove("carrierD").getNumber());
+        assertNull(registry.remove("carrierD"));
+        assertFalse(registry.names().contains("carrierD"));
+
+        assertEquals(3, registry.publish("carrierD", Arrays.asList(new ZipCodeRange("00007", "00009"))).getNumber());
+        assertTrue(registry.contains("carrierD", 8));
+        assertTrue(registry.names().contains("carrierD"));
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void namesAreReadOnly()
+    {
+        logger.info("Test sets cannot be removed through the names view");
+        var registry = new ZipCodeRangeRegistry(new AlgorythmZipCode());
+        registry.publish("carrierC", ZipCodeRangeSet.EMPTY);
+        assertTrue(registry.names().contains("carrierC"));
+
+        registry.names().remove("carrierC");
+    }
+
+    @Test
+    public void readersSeeWholeVersionsDuringRebuilds() throws InterruptedException
+    {
+        logger.info("Test readers only ever see complete versions, in order, while a writer keeps republishing");
+        var registry = new ZipCodeRangeRegistry(new AlgorythmZipCode());
+        registry.publish("carrierB", versionRanges(1));
+
+        var running = new AtomicBoolean(true);
+        var failure = new AtomicReference<String>();
+        var readers = new ArrayList<Thread>();
+        for (var i = 0; i < 4; i++)
+        {
+            var reader = new Thread(() ->
+                {
+                    var lastNumber = 0L;
+                    while (running.get())
+                    {
+                        var version = registry.get("carrierB");
+                        var number = version.getNumber();
+                        var rangeSet = version.getRangeSet();
+
+                        // Version n restricts 00000 through n, so its contents must match its number
+                        if (number < lastNumber || !rangeSet.contains((int) number) || rangeSet.contains((int) number + 1))
+                        {
+                            failure.set("inconsistent version " + number + " after " + lastNumber);
+                        }
+
+                        lastNumber = number;
+                    }
+                });
+            readers.add(reader);
+            reader.start();
+        }
+
+        for (var number = 2; number <= 2000; number++)
+        {
+            assertEquals(number, registry.publish("carrierB", versionRanges(number)).getNumber());
+        }
+
+        running.set(false);
+        for (var reader : readers)
+        {
+            reader.join();
+        }
+
+        assertNull(failure.get());
+        assertEquals(2000, registry.get("carrierB").getNumber());
+    }
+
+    private static ArrayList<ZipCodeRange> versionRanges(int number)
+    {
+        var ranges = new ArrayList<ZipCodeRange>();
+        for (var zip = 0; zip <= number; zip += 10)
+        {
+            ranges.add(new ZipCodeRange(ZipCodes.format(zip), ZipCodes.format(Math.min(number, zip + 9))));
+        }
+
+        return ranges;
+    }
+}
@@ -0,0 +1,126 @@
+package com.williamsonoma.utility.address;
+
+import java.util.Arrays;
+import java.util.Random;
+import org.junit.Test;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertEquals;
+import org.apache.logging.log4j.Logger;
+import org.apache.logging.log4j.LogManager;
+import com.williamsonoma.api.model.address.PackedZipCodeRange;
+import com.williamsonoma.api.model.address.ZipCodeRange;
+
+/**
+ * Functional tests for point lookups against compacted ranges.
+ */
+public class ZipCodeRangeSetFunctionalTest
+{
+    private static final Logger logger = LogManager.getLogger(ZipCodeRangeSetFunctionalTest.class);
+
+    @Test
+    public void containsBoundsAndGaps()
+    {
+        logger.info("Test lookups on range bounds, inside ranges and in the gaps between them");
+        var rangeSet = ZipCodeRangeSet.of(Arrays.asList(
+               new ZipCodeRange("00000", "00005"),
+               new ZipCodeRange("00010", "00010"),
+               new ZipCodeRange("90000", "99999")));
+
+        assertTrue(rangeSet.contains(0));
+        assertTrue(rangeSet.contains(5));
+        assertFalse(rangeSet.contains(6));
+        assertFalse(rangeSet.contains(9));
+        assertTrue(rangeSet.contains(10));
+        assertFalse(rangeSet.contains(11));
+        assertFalse(rangeSet.contains(89999));
+        assertTrue(rangeSet.contains("95123"));
+        assertTrue(rangeSet.contains(99999));
+    }
+
+    @Test
+    public void ofCompactsUnsortedRanges()
+    {
+        logger.info("Test building from out-of-order adjacent ranges compacts them");
+        var rangeSet = ZipCodeRangeSet.of(new long[] {
+               PackedZipCodeRange.pack(6, 8),
+               PackedZipCodeRange.pack(9, 11),
+               PackedZipCodeRange.pack(3, 6) });
+
+        assertEquals(1, rangeSet.size());
+        assertEquals(3, rangeSet.lower(0));
+        assertEquals(11, rangeSet.upper(0));
+    }
+
+    @Test
+    public void emptyContainsNothing()
+    {
+        logger.info("Test an empty range set contains no zip codes");
+        assertFalse(ZipCodeRangeSet.EMPTY.contains(0));
+        assertTrue(ZipCodeRangeSet.of(new long[0]).isEmpty());
+    }
+
+    @Test
+    public void setAlgebraMatchesPerZipModel()
+    {
+        logger.info("Test union, intersection, difference and complement against a per zip code model");
+        var random = new Random(17);
+        for (var round = 0; round < 20; round++)
+        {
+            var a = randomRangeSet(random);
+            var b = randomRangeSet(random);
+
+            var union = a.union(b);
+            var intersection = a.intersection(b);
+            var difference = a.difference(b);
+            var complement = a.complement();
+
+            for (var zip = 0; zip < ZipCodes.UNIVERSE; zip++)
+            {
+                assertEquals(a.contains(zip) || b.contains(zip), union.contains(zip));
+                assertEquals(a.contains(zip) && b.contains(zip), intersection.contains(zip));
+                assertEquals(a.contains(zip) && !b.contains(zip), difference.contains(zip));
+                assertEquals(!a.contains(zip), complement.contains(zip));
+            }
+
+            // Results must already be compacted, so rebuilding them changes nothing
+            assertEquals(ZipCodeRangeSet.of(union.toPacked()), union);
+            assertEquals(ZipCodeRangeSet.of(intersection.toPacked()), intersection);
+            assertEquals(ZipCodeRangeSet.of(difference.toPacked()), difference);
+            assertEquals(a, complement.complement());
+        }
+    }
+
+    @Test
+    public void complementOfEmptyIsUniverse()
+    {
+        logger.info("Test the complement of an empty range set is the whole zip code universe");
+        var universe = ZipCodeRangeSet.EMPTY.complement();
+
+        assertEquals(1, universe.size());
+        assertEquals(0, universe.lower(0));
+        assertEquals(99999, universe.upper(0));
+        assertTrue(universe.complement().isEmpty());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void containsInvalidZipCode()
+    {
+        logger.info("Test looking up a non-numeric zip code expecting IllegalArgumentException");
+        ZipCodeRangeSet.EMPTY.contains("0005B");
+    }
+
+    private ZipCodeRangeSet randomRangeSet(Random random)
+    {
+        var size = random.nextInt(300);
+        var lowers = new int[size];
+        var uppers = new int[size];
+        for (var i = 0; i < size; i++)
+        {
+            lowers[i] = random.nextInt(ZipCodes.UNIVERSE);
+            uppers[i] = Math.min(ZipCodes.MAX_ZIP, lowers[i] + random.nextInt(2000));
+        }
+
+        return ZipCodeRangeSet.of(new FixedUniverseZipCode().compactRanges(lowers, uppers));
+    }
+}
@@ -0,0 +1,146 @@
+package com.williamsonoma.utility.address;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Random;
+import org.junit.Test;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertArrayEquals;
+import org.apache.logging.log4j.Logger;
+import org.apache.logging.log4j.LogManager;
+import com.williamsonoma.api.model.address.PackedZipCodeRange;
+import com.williamsonoma.api.model.address.ZipCodeRange;
+import com.williamsonoma.api.utility.address.ZipCode;
+
+/**
+ * Functional tests for compacting and looking up ZIP+4 ranges.
+ */
+public class ZipPlusFourCompactorFunctionalTest
+{
+    private static final Logger logger = LogManager.getLogger(ZipPlusFourCompactorFunctionalTest.class);
+
+    @Test
+    public void compactsPlainAndHyphenatedForms()
+    {
+        logger.info("Test compacting overlapping and adjacent ZIP+4 ranges written with and without the hyphen");
+        var compactedRanges = new ArrayList<ZipCodeRange>(new AlgorythmZipCode().compactZipPlusFourRanges(Arrays.asList(
+               new ZipCodeRange("123450101", "123450200"),
+               new ZipCodeRange("12345-0000", "12345-0100"),
+               new ZipCodeRange("99999-9990", "999999999"),
+               new ZipCodeRange("12345-0150", "12345-0300"))));
+
+        assertEquals(2, compactedRanges.size());
+        assertEquals("12345-0000", compactedRanges.get(0).getLower());
+        assertEquals("12345-0300", compactedRanges.get(0).getUpper());
+        assertEquals("99999-9990", compactedRanges.get(1).getLower());
+        assertEquals("99999-9999", compactedRanges.get(1).getUpper());
+    }
+
+    @Test
+    public void fiveDigitBoundCoversBlock()
+    {
+        logger.info("Test a 5 digit bound covers its whole block of ZIP+4 codes");
+        var rangeSet = ZipPlusFourRangeSet.of(Arrays.asList(
+               new ZipCodeRange("00501", "00501"),
+               new ZipCodeRange("00502-0000", "00502-0009")));
+
+        assertEquals(1, rangeSet.size());
+        assertTrue(rangeSet.contains("00501-0000"));
+        assertTrue(rangeSet.contains("005019999"));
+        assertTrue(rangeSet.contains("00502-0009"));
+        assertFalse(rangeSet.contains("00502-0010"));
+        assertFalse(rangeSet.contains("00500-9999"));
+    }
+
+    @Test
+    public void smallChunksMatchOneSort()
+    {
+        logger.info("Test streaming ranges through many small chunks gives the same result as sorting them all at once");
+        var random = new Random(15);
+        var lowers = new int[200000];
+        var uppers = new int[200000];
+        var packedRanges = new long[lowers.length];
+        for (var i = 0; i < lowers.length; i++)
+        {
+            lowers[i] = random.nextInt(ZipCodes.MAX_ZIP_PLUS_FOUR - 10000);
+            uppers[i] = lowers[i] + random.nextInt(10000);
+            packedRanges[i] = PackedZipCodeRange.pack(lowers[i], uppers[i]);
+        }
+
+        Arrays.sort(packedRanges);
+        var expected = Arrays.copyOf(packedRanges, PackedRanges.coalesce(packedRanges, packedRanges.length));
+
+        var compactor = new ZipPlusFourCompactor(1000);
+        for (var i = 0; i < lowers.length; i++)
+        {
+            compactor.add(lowers[i], uppers[i]);
+        }
+
+        assertArrayEquals(expected, compactor.toPacked());
+        assertArrayEquals(expected, new FixedUniverseZipCode().compactZipPlusFourRanges(lowers, uppers));
+
+        var rangeSet = compactor.toRangeSet();
+        for (var i = 0; i < 1000; i++)
+        {
+            var zip = random.nextInt(ZipCodes.MAX_ZIP_PLUS_FOUR + 1);
+            var index = Arrays.binarySearch(expected, PackedZipCodeRange.pack(zip, Integer.MAX_VALUE));
+            var candidate = -index - 2;
+            assertEquals(candidate >= 0 && PackedZipCodeRange.upper(expected[candidate]) >= zip, rangeSet.contains(zip));
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void misplacedHyphen()
+    {
+        logger.info("Test a ZIP+4 code with the hyphen in the wrong place expecting IllegalArgumentException");
+        new AlgorythmZipCode().compactZipPlusFourRanges(Arrays.asList(new ZipCodeRange("1234-56789", "12345-6789")));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void primitiveZipAboveRange()
+    {
+        logger.info("Test primitive ZIP+4 code above 999999999 expecting IllegalArgumentException");
+        new AlgorythmZipCode().compactZipPlusFourRanges(new int[] { 0 }, new int[] { 1000000000 });
+    }
+
+    @Test
+    public void defaultMatchesCompactor()
+    {
+        logger.info("Test the ZipCode default ZIP+4 compaction agrees with the chunked compactor");
+        ZipCode fiveDigitOnly = ranges -> ranges;
+
+        var random = new Random(15);
+        var lowers = new int[5000];
+        var uppers = new int[5000];
+        var ranges = new ArrayList<ZipCodeRange>();
+        for (var i = 0; i < lowers.length; i++)
+        {
+            lowers[i] = random.nextInt(ZipCodes.MAX_ZIP_PLUS_FOUR - 100000);
+            uppers[i] = lowers[i] + random.nextInt(100000);
+            ranges.add(new ZipCodeRange(ZipCodes.formatPlusFour(lowers[i]), Integer.toString(uppers[i] + 1000000000).substring(1)));
+        }
+
+        ranges.add(new ZipCodeRange("00000", "00000"));
+
+        var expected = new ArrayList<ZipCodeRange>(new AlgorythmZipCode().compactZipPlusFourRanges(ranges));
+        var compactedRanges = new ArrayList<ZipCodeRange>(fiveDigitOnly.compactZipPlusFourRanges(ranges));
+        assertEquals(expected.size(), compactedRanges.size());
+        for (var i = 0; i < expected.size(); i++)
+        {
+            assertEquals(expected.get(i).getLower(), compactedRanges.get(i).getLower());
+            assertEquals(expected.get(i).getUpper(), compactedRanges.get(i).getUpper());
+        }
+
+        assertArrayEquals(ZipPlusFourCompactor.compact(lowers, uppers), fiveDigitOnly.compactZipPlusFourRanges(lowers, uppers));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void defaultRejectsMisplacedHyphen()
+    {
+        logger.info("Test the ZipCode default ZIP+4 compaction with the hyphen in the wrong place expecting IllegalArgumentException");
+        ZipCode fiveDigitOnly = ranges -> ranges;
+        fiveDigitOnly.compactZipPlusFourRanges(Arrays.asList(new ZipCodeRange("1234-56789", "12345-6789")));
+    }
+}